@@ -6,7 +6,6 @@ import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
@@ -17,11 +16,7 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 public class AbstractPage {
-    protected WebDriverWait explicitWait;
-    protected WebElement element;
-    protected JavascriptExecutor jsExecutor;
-    protected Actions action;
-    protected Select select;
+    private static final SortVerifier.NumericParser DISPLAY_DATE = SortVerifier.date("MMM dd yyyy", Locale.getDefault());
     private final Log log = LogFactory.getLog(getClass());
 
     /**
@@ -31,6 +26,7 @@ public class AbstractPage {
      * @param url:   input url to open page
      */
     protected void openPageUrl(WebDriver driver, String url) {
+        ElementCache.getCache().invalidate(driver);
         try {
             driver.get(url);
         } catch (Exception e) {
@@ -59,6 +55,7 @@ public class AbstractPage {
      * @param driver
      */
     protected void backToPage(WebDriver driver) {
+        ElementCache.getCache().invalidate(driver);
         try {
             driver.navigate().back();
         } catch (Exception e) {
@@ -72,6 +69,7 @@ public class AbstractPage {
      * @param driver
      */
     protected void forwardToPage(WebDriver driver) {
+        ElementCache.getCache().invalidate(driver);
         try {
             driver.navigate().forward();
         } catch (Exception e) {
@@ -85,6 +83,7 @@ public class AbstractPage {
      * @param driver
      */
     protected void refreshCurrentPage(WebDriver driver) {
+        ElementCache.getCache().invalidate(driver);
         try {
             driver.navigate().refresh();
         } catch (Exception e) {
@@ -162,6 +161,7 @@ public class AbstractPage {
      * @param parentID the id of window that will switch to
      */
     protected void switchWindowByID(WebDriver driver, String parentID) {
+        ElementCache.getCache().invalidate(driver);
         try {
             Set<String> IdWinDow = driver.getWindowHandles();
             for (String a : IdWinDow) {
@@ -181,6 +181,7 @@ public class AbstractPage {
      * @param title: the title of window that will switch to
      */
     protected void switchWindowByTitle(WebDriver driver, String title) {
+        ElementCache.getCache().invalidate(driver);
         try {
             Set<String> windows = driver.getWindowHandles();
             for (String a : windows) {
@@ -202,12 +203,13 @@ public class AbstractPage {
      * @param ID:    the ID of parent window
      */
     protected void closeAllWindowsWithoutParentWindow(WebDriver driver, String ID) {
+        ElementCache.getCache().invalidate(driver);
         try {
             Set<String> IdWindows = driver.getWindowHandles();
             for (String a : IdWindows) {
                 if (!a.equals(ID)) {
                     driver.switchTo().window(a);
-                    sleepInSecond(2);
+                    QuiescenceDetector.getDetector().awaitIdle(driver);
                     driver.close();
                 }
             }
@@ -225,8 +227,9 @@ public class AbstractPage {
      */
     protected void switchToFrame(WebDriver driver, String locator) {
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             driver.switchTo().frame(element);
+            ElementCache.getCache().invalidate(driver);
         } catch (Exception e) {
             log.error("|AbstractPage| - |switchToFrame| - Cannot switch to frame: " + e.getMessage());
         }
@@ -238,6 +241,7 @@ public class AbstractPage {
      * @param driver
      */
     protected void switchToDefaultContent(WebDriver driver) {
+        ElementCache.getCache().invalidate(driver);
         try {
             driver.switchTo().defaultContent();
         } catch (Exception e) {
@@ -255,7 +259,7 @@ public class AbstractPage {
      */
     protected String castToParameter(String locator, String... values) {
         try {
-            locator = String.format(locator, (Object[]) values);
+            locator = LocatorCache.getCache().format(locator, values);
             return locator;
         } catch (Exception e) {
             log.error("|AbstractPage| - |castToParameter| - Cannot switch to default content: " + e.getMessage());
@@ -270,7 +274,18 @@ public class AbstractPage {
      * @return way to find an element by xpath
      */
     protected By getByXpath(String locator) {
-        return By.xpath(locator);
+        return LocatorCache.getCache().getByXpath(locator);
+    }
+
+    /**
+     * To find an element by matching a dynamic XPath expression, compiled once per template and values
+     *
+     * @param locator: the xpath expression of an element
+     * @param values:  at least a value that will cast to locator
+     * @return way to find an element by xpath
+     */
+    protected By getByXpath(String locator, String... values) {
+        return LocatorCache.getCache().getByXpath(locator, values);
     }
 
     /**
@@ -281,8 +296,9 @@ public class AbstractPage {
      * @return element matching xpath locator
      */
     protected WebElement getElement(WebDriver driver, String locator) {
+        WebElement element = null;
         try {
-            element = driver.findElement(getByXpath(locator));
+            element = findElement(driver, getByXpath(locator));
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElement| - Cannot get element: " + e.getMessage());
         }
@@ -299,14 +315,29 @@ public class AbstractPage {
      * @return element matching dynamic xpath locator
      */
     protected WebElement getElement(WebDriver driver, String locator, String... values) {
+        WebElement element = null;
         try {
-            element = driver.findElement(getByXpath(castToParameter(locator, values)));
+            element = findElement(driver, getByXpath(locator, values));
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElement| - Cannot get element: " + e.getMessage());
         }
         return element;
     }
 
+    /**
+     * To find the first element matching a locator, reusing a cached handle when the element cache is switched on
+     *
+     * @param driver
+     * @param by:    the resolved locator of the element
+     * @return element matching the locator
+     */
+    private WebElement findElement(WebDriver driver, By by) {
+        if (ElementCache.getCache().isEnabled()) {
+            return ElementCache.getCache().find(driver, by);
+        }
+        return driver.findElement(by);
+    }
+
     /**
      * To find a list of web elements. If only one element is found, it will still return a collection (of one element). If no element matches the locator, an empty list will be returned.
      *
@@ -335,7 +366,7 @@ public class AbstractPage {
     protected List<WebElement> getElements(WebDriver driver, String locator, String... values) {
         List<WebElement> listElements = new ArrayList<WebElement>();
         try {
-            listElements = driver.findElements(getByXpath(castToParameter(locator, values)));
+            listElements = driver.findElements(getByXpath(locator, values));
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElements| - Cannot get list elements: " + e.getMessage());
         }
@@ -385,7 +416,7 @@ public class AbstractPage {
      */
     protected void clickToElement(WebDriver driver, String locator) {
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             element.click();
         } catch (Exception e) {
             log.error("|AbstractPage| - |clickToElement| - Cannot click to element: " + e.getMessage());
@@ -401,7 +432,7 @@ public class AbstractPage {
      */
     protected void clickToElement(WebDriver driver, String locator, String... values) {
         try {
-            element = getElement(driver, castToParameter(locator, values));
+            WebElement element = getElement(driver, locator, values);
             element.click();
         } catch (Exception e) {
             log.error("|AbstractPage| - |clickToElement| - Cannot click to element: " + e.getMessage());
@@ -409,7 +440,7 @@ public class AbstractPage {
     }
 
     /**
-     * To type a key sequence in DOM element
+     * To type a key sequence in DOM element. Long texts are pasted, see {@link TextEntry}
      *
      * @param driver
      * @param locator:   the xpath expression of an element that will be sent keys
@@ -417,16 +448,31 @@ public class AbstractPage {
      */
     protected void sendKeyToElement(WebDriver driver, String locator, String textValue) {
         try {
-            element = getElement(driver, locator);
-            clearTextBox(driver, locator);
-            element.sendKeys(textValue);
+            TextEntry.enter(driver, getElement(driver, locator), textValue);
+        } catch (Exception e) {
+            log.error("|AbstractPage| - |sendKeyToElement| - Cannot send key to element: " + e.getMessage());
+        }
+    }
+
+    /**
+     * To enter a text in DOM element by typing or pasting it
+     *
+     * @param driver
+     * @param locator:   the xpath expression of an element that will be sent keys
+     * @param textValue: the content that will be sent to text box
+     * @param mode:      TYPE for key events, PASTE to set the value, AUTO to paste long texts only
+     */
+    protected void sendKeyToElement(WebDriver driver, String locator, String textValue, TextEntry.Mode mode) {
+        try {
+            TextEntry.enter(driver, getElement(driver, locator), textValue, mode);
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyToElement| - Cannot send key to element: " + e.getMessage());
         }
     }
 
     /**
-     * To type a key sequence in DOM element matching an xpath expression with rest parameter
+     * To type a key sequence in DOM element matching an xpath expression with rest parameter. Long texts are pasted,
+     * see {@link TextEntry}
      *
      * @param driver
      * @param textValue: the content that will be sent to text box
@@ -435,9 +481,7 @@ public class AbstractPage {
      */
     protected void sendKeyToElement(WebDriver driver, String textValue, String locator, String... values) {
         try {
-            element = getElement(driver, castToParameter(locator, values));
-            element.clear();
-            element.sendKeys(textValue);
+            TextEntry.enter(driver, getElement(driver, locator, values), textValue);
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyToElement| - Cannot send key to element: " + e.getMessage());
         }
@@ -452,7 +496,7 @@ public class AbstractPage {
      */
     protected void clickToTextBoxTypeNumber(WebDriver driver, String locator, int value) {
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             for (int i = 0; i < value; i++) {
                 clickToElement(driver, locator);
             }
@@ -470,7 +514,7 @@ public class AbstractPage {
      */
     protected void clearTextBox(WebDriver driver, String locator, String... values) {
         try {
-            element = getElement(driver, castToParameter(locator, values));
+            WebElement element = getElement(driver, locator, values);
             element.clear();
         } catch (Exception e) {
             log.error("|AbstractPage| - |clearTextBox| - Cannot clear text box: " + e.getMessage());
@@ -485,7 +529,7 @@ public class AbstractPage {
      */
     protected void clearTextBox(WebDriver driver, String locator) {
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             element.clear();
         } catch (Exception e) {
             log.error("|AbstractPage| - |clearTextBox| - Cannot clear text box: " + e.getMessage());
@@ -557,8 +601,8 @@ public class AbstractPage {
      */
     protected void selectItemByVisible(WebDriver driver, String textValue, String locator) {
         try {
-            element = getElement(driver, locator);
-            select = new Select(element);
+            WebElement element = getElement(driver, locator);
+            Select select = new Select(element);
             select.selectByVisibleText(textValue);
         } catch (Exception e) {
             log.error("|AbstractPage| - |selectItemByVisible| - Cannot select item by visible: " + e.getMessage());
@@ -575,8 +619,8 @@ public class AbstractPage {
      */
     protected void selectItemByVisible(WebDriver driver, String textValue, String locator, String... values) {
         try {
-            element = getElement(driver, locator, values);
-            select = new Select(element);
+            WebElement element = getElement(driver, locator, values);
+            Select select = new Select(element);
             select.selectByVisibleText(textValue);
         } catch (Exception e) {
             log.error("|AbstractPage| - |selectItemByVisible| - Cannot select item by visible: " + e.getMessage());
@@ -593,8 +637,8 @@ public class AbstractPage {
     protected String getFirstSelectedTextInDropdown(WebDriver driver, String locator) {
         String text = "";
         try {
-            element = getElement(driver, locator);
-            select = new Select(element);
+            WebElement element = getElement(driver, locator);
+            Select select = new Select(element);
             text = select.getFirstSelectedOption().getText();
         } catch (Exception e) {
             log.error("|AbstractPage| - |getFirstSelectedTextInDropdown| - Cannot get selected in dropdown: " + e.getMessage());
@@ -613,8 +657,8 @@ public class AbstractPage {
     protected String getFirstSelectedTextInDropdown(WebDriver driver, String locator, String... values) {
         String text = "";
         try {
-            element = getElement(driver, castToParameter(locator, values));
-            select = new Select(element);
+            WebElement element = getElement(driver, locator, values);
+            Select select = new Select(element);
             text = select.getFirstSelectedOption().getText();
         } catch (Exception e) {
             log.error("|AbstractPage| - |getFirstSelectedTextInDropdown| - Cannot get selected in dropdown: " + e.getMessage());
@@ -632,8 +676,8 @@ public class AbstractPage {
     protected boolean isDropdownMultiple(WebDriver driver, String locator) {
         boolean checkMultiple = false;
         try {
-            element = getElement(driver, locator);
-            select = new Select(element);
+            WebElement element = getElement(driver, locator);
+            Select select = new Select(element);
             checkMultiple = select.isMultiple();
         } catch (Exception e) {
             log.error("|AbstractPage| - |isDropdownMultiple| - Dropdown multiple error: " + e.getMessage());
@@ -650,8 +694,8 @@ public class AbstractPage {
      */
     protected void deSelectItemByVisible(WebDriver driver, String textValue, String locator) {
         try {
-            element = getElement(driver, locator);
-            select = new Select(element);
+            WebElement element = getElement(driver, locator);
+            Select select = new Select(element);
             select.deselectByVisibleText(textValue);
         } catch (Exception e) {
             log.error("|AbstractPage| - |deSelectItemByVisible| - Cannot deselect item by visible: " + e.getMessage());
@@ -668,8 +712,8 @@ public class AbstractPage {
      */
     protected void deSelectItemByVisible(WebDriver driver, String textValue, String locator, String... values) {
         try {
-            element = getElement(driver, castToParameter(locator, values));
-            select = new Select(element);
+            WebElement element = getElement(driver, locator, values);
+            Select select = new Select(element);
             select.deselectByVisibleText(textValue);
         } catch (Exception e) {
             log.error("|AbstractPage| - |deSelectItemByVisible| - Cannot deselect item by visible: " + e.getMessage());
@@ -684,8 +728,8 @@ public class AbstractPage {
      */
     protected void deSelectAllOptions(WebDriver driver, String locator) {
         try {
-            element = getElement(driver, locator);
-            select = new Select(element);
+            WebElement element = getElement(driver, locator);
+            Select select = new Select(element);
             select.deselectAll();
         } catch (Exception e) {
             log.error("|AbstractPage| - |deSelectAllOptions| - Cannot deselect all items: " + e.getMessage());
@@ -703,7 +747,7 @@ public class AbstractPage {
     protected String getElementAttribute(WebDriver driver, String locator, String attributeName) {
         String elementAttribute = "";
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             elementAttribute = element.getAttribute(attributeName);
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElementAttribute| - Cannot get element attribute: " + e.getMessage());
@@ -723,7 +767,7 @@ public class AbstractPage {
     protected String getElementAttribute(WebDriver driver, String locator, String attributeName, String... values) {
         String elementAttribute = "";
         try {
-            element = getElement(driver, castToParameter(locator, values));
+            WebElement element = getElement(driver, locator, values);
             elementAttribute = element.getAttribute(attributeName);
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElementAttribute| - Cannot get element attribute: " + e.getMessage());
@@ -741,7 +785,7 @@ public class AbstractPage {
     protected String getElementText(WebDriver driver, String locator) {
         String elementText = "";
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             elementText = element.getText().trim();
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElementText| - Cannot get element text: " + e.getMessage());
@@ -760,7 +804,7 @@ public class AbstractPage {
     protected String getElementText(WebDriver driver, String locator, String... values) {
         String elementText = "";
         try {
-            element = getElement(driver, castToParameter(locator, values));
+            WebElement element = getElement(driver, locator, values);
             elementText = element.getText();
         } catch (Exception e) {
             log.error("|AbstractPage| - |getElementText| - Cannot get element text: " + e.getMessage());
@@ -776,16 +820,7 @@ public class AbstractPage {
      * @return the list text of elements matching locator
      */
     protected List<String> getElementsText(WebDriver driver, String locator) {
-        List<WebElement> items = getElements(driver, locator);
-        ArrayList<String> listItems = new ArrayList<String>();
-        try {
-            for (WebElement webElement : items) {
-                listItems.add(webElement.getText().trim());
-            }
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |getElementsText| - Cannot get elements text: " + e.getMessage());
-        }
-        return listItems;
+        return getElementsText(driver, BulkTextExtractor.getDefaultMode(), locator);
     }
 
     /**
@@ -797,17 +832,25 @@ public class AbstractPage {
      * @return the list text of elements matching dynamic locator
      */
     protected List<String> getElementsText(WebDriver driver, String locator, String... values) {
-        List<WebElement> items = getElements(driver, castToParameter(locator, values));
-        ArrayList<String> listItems = new ArrayList<String>();
+        return getElementsText(driver, BulkTextExtractor.getDefaultMode(), castToParameter(locator, values));
+    }
+
+    /**
+     * To return the rendered text of a list of elements, choosing how the texts are read
+     *
+     * @param driver
+     * @param mode:    BULK reads every text in one script call, PER_ELEMENT calls getText on each element
+     * @param locator: the xpath expression of an element
+     * @return the list text of elements matching locator
+     */
+    protected List<String> getElementsText(WebDriver driver, BulkTextExtractor.Mode mode, String locator) {
+        List<String> listItems = new ArrayList<String>();
         try {
-            for (WebElement webElement : items) {
-                listItems.add(webElement.getText().trim());
-            }
+            listItems = BulkTextExtractor.getTexts(driver, locator, mode);
         } catch (Exception e) {
-            log.error("|AbstractPage| - |getElementsText| - Cannot get element text: " + e.getMessage());
+            log.error("|AbstractPage| - |getElementsText| - Cannot get elements text: " + e.getMessage());
         }
         return listItems;
-
     }
 
     /**
@@ -838,7 +881,7 @@ public class AbstractPage {
     protected int countElementSize(WebDriver driver, String locator, String... values) {
         int elementSize = 0;
         try {
-            elementSize = getElements(driver, castToParameter(locator, values)).size();
+            elementSize = getElements(driver, locator, values).size();
         } catch (Exception e) {
             log.error("|AbstractPage| - |countElementSize| - Cannot get elements size: " + e.getMessage());
         }
@@ -854,7 +897,7 @@ public class AbstractPage {
      */
     protected void checkToCheckBox(WebDriver driver, String locator, String... values) {
         try {
-            element = getElement(driver, castToParameter(locator, values));
+            WebElement element = getElement(driver, locator, values);
             if (!element.isSelected()) {
                 element.click();
             }
@@ -871,7 +914,7 @@ public class AbstractPage {
      */
     protected void checkToCheckBox(WebDriver driver, String locator) {
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             if (!element.isSelected()) {
                 element.click();
             }
@@ -888,7 +931,7 @@ public class AbstractPage {
      */
     protected void unCheckToCheckBox(WebDriver driver, String locator) {
         try {
-            element = getElement(driver, locator);
+            WebElement element = getElement(driver, locator);
             if (element.isSelected()) {
                 element.click();
             }
@@ -899,7 +942,7 @@ public class AbstractPage {
 
     protected void unCheckToCheckBox(WebDriver driver, String locator, String... values) {
         try {
-            element = getElement(driver, castToParameter(locator, values));
+            WebElement element = getElement(driver, locator, values);
             if (element.isSelected()) {
                 element.click();
             }
@@ -918,17 +961,7 @@ public class AbstractPage {
     protected boolean isElementUnDisplayed(WebDriver driver, String locator) {
         boolean status = true;
         try {
-            overrideGlobalTimeout(driver, GlobalConstants.SHORT_TIMEOUT);
-            List<WebElement> elements = getElements(driver, locator);
-            overrideGlobalTimeout(driver, GlobalConstants.LONG_TIMEOUT);
-            if (elements.size() == 0) {
-                return status;
-            } else if (elements.size() > 0 && !elements.get(0).isDisplayed()) {
-                return status;
-            } else {
-                status = false;
-                return status;
-            }
+            status = ElementProbe.isUndisplayed(driver, locator, GlobalConstants.PROBE_GRACE_MILLIS);
         } catch (Exception e) {
             status = false;
             log.error("|AbstractPage| - |isElementUnDisplayed| - Element is undisplayed error : " + e.getMessage());
@@ -947,17 +980,7 @@ public class AbstractPage {
     protected boolean isElementUnDisplayed(WebDriver driver, String locator, String... values) {
         boolean status = true;
         try {
-            overrideGlobalTimeout(driver, GlobalConstants.SHORT_TIMEOUT);
-            List<WebElement> elements = getElements(driver, castToParameter(locator, values));
-            overrideGlobalTimeout(driver, GlobalConstants.LONG_TIMEOUT);
-            if (elements.size() == 0) {
-                return status;
-            } else if (elements.size() > 0 && !elements.get(0).isDisplayed()) {
-                return status;
-            } else {
-                status = false;
-                return status;
-            }
+            status = ElementProbe.isUndisplayed(driver, castToParameter(locator, values), GlobalConstants.PROBE_GRACE_MILLIS);
         } catch (Exception e) {
             status = false;
             log.error("|AbstractPage| - |isElementUnDisplayed| - Element is undisplayed error : " + e.getMessage());
@@ -973,17 +996,14 @@ public class AbstractPage {
      * @return the boolean value, true if the element is displayed on a web page, else returns false.
      */
     protected boolean isElementDisplayed(WebDriver driver, String locator) {
-        boolean check = true;
+        boolean check = false;
         try {
-            if (getElement(driver, locator).isDisplayed()) {
-                return check;
-            }
+            check = ElementProbe.isDisplayed(driver, locator, GlobalConstants.PROBE_DISPLAYED_GRACE_MILLIS);
         } catch (Exception e) {
             check = false;
             log.error("|AbstractPage| - |isElementDisplayed| - Element is displayed error: " + e.getMessage());
         }
         return check;
-
     }
 
     /**
@@ -995,11 +1015,9 @@ public class AbstractPage {
      * @return the boolean value, true if the element is displayed on a web page, else returns false.
      */
     protected boolean isElementDisplayed(WebDriver driver, String locator, String... values) {
-        boolean check = true;
+        boolean check = false;
         try {
-            if (getElement(driver, castToParameter(locator, values)).isDisplayed()) {
-                return check;
-            }
+            check = ElementProbe.isDisplayed(driver, castToParameter(locator, values), GlobalConstants.PROBE_DISPLAYED_GRACE_MILLIS);
         } catch (Exception e) {
             check = false;
             log.error("|AbstractPage| - |isElementDisplayed| - Element is displayed error: " + e.getMessage());
@@ -1059,7 +1077,7 @@ public class AbstractPage {
     protected boolean isElementSelected(WebDriver driver, String locator, String... values) {
         boolean check = true;
         try {
-            if (getElement(driver, castToParameter(locator, values)).isSelected()) {
+            if (getElement(driver, locator, values).isSelected()) {
                 return check;
             }
         } catch (Exception e) {
@@ -1077,7 +1095,7 @@ public class AbstractPage {
      */
     protected void doubleClickToElement(WebDriver driver, String locator) {
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.doubleClick(getElement(driver, locator)).perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |doubleClickToElement| - Cannot double click to element: " + e.getMessage());
@@ -1092,7 +1110,7 @@ public class AbstractPage {
      */
     protected void rightClickToElement(WebDriver driver, String locator) {
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.contextClick(getElement(driver, locator)).perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |rightClickToElement| - Cannot right click to element: " + e.getMessage());
@@ -1107,7 +1125,7 @@ public class AbstractPage {
      */
     protected void hoverMouseToElement(WebDriver driver, String locator) {
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.moveToElement(getElement(driver, locator)).perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |hoverMouseToElement| - Cannot hover mouse to element: " + e.getMessage());
@@ -1123,8 +1141,8 @@ public class AbstractPage {
      */
     protected void hoverMouseToElement(WebDriver driver, String locator, String... values) {
         try {
-            action = new Actions(driver);
-            action.moveToElement(getElement(driver, castToParameter(locator, values))).perform();
+            Actions action = new Actions(driver);
+            action.moveToElement(getElement(driver, locator, values)).perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |hoverMouseToElement| - Cannot hover mouse to element: " + e.getMessage());
         }
@@ -1137,8 +1155,9 @@ public class AbstractPage {
      * @param locator: the xpath expression of an element
      */
     protected void clickAndHoldToElement(WebDriver driver, String locator) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.LAYOUT, "clickAndHoldToElement");
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.clickAndHold(getElement(driver, locator)).perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |clickAndHoldToElement| - Cannot click and hold to element: " + e.getMessage());
@@ -1153,8 +1172,9 @@ public class AbstractPage {
      * @param targetLocator: the xpath of target locator of an element
      */
     protected void dragAnDropElement(WebDriver driver, String sourceLocator, String targetLocator) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.LAYOUT, "dragAnDropElement");
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.dragAndDrop(getElement(driver, sourceLocator), getElement(driver, targetLocator)).perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |dragAnDropElement| - Cannot drag and drop element: " + e.getMessage());
@@ -1171,7 +1191,7 @@ public class AbstractPage {
      */
     protected void sendKeyBoardToElement(WebDriver driver, String locator, Keys key) {
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.sendKeys(getElement(driver, locator), key).build().perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyBoardToElement| - Cannot send key board to element: " + e.getMessage());
@@ -1181,7 +1201,7 @@ public class AbstractPage {
 
     protected void keyDownToElement(WebDriver driver, Keys key) {
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.keyDown(key).build().perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyDownControlToElement| - Cannot send key down control to element: " + e.getMessage());
@@ -1190,7 +1210,7 @@ public class AbstractPage {
 
     protected void keyUpToElement(WebDriver driver, Keys key) {
         try {
-            action = new Actions(driver);
+            Actions action = new Actions(driver);
             action.keyUp(key).build().perform();
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyDownControlToElement| - Cannot send key up control to element: " + e.getMessage());
@@ -1206,9 +1226,9 @@ public class AbstractPage {
      * @param text:    the content that will be sent to text box
      */
     protected void sendKeyToElementByJS(WebDriver driver, String locator, String text) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "sendKeyToElementByJS");
         try {
-            jsExecutor = (JavascriptExecutor) driver;
-            jsExecutor.executeScript("arguments[0].setAttribute('value','" + text + "')", getElement(driver, locator));
+            ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SET_VALUE_ATTRIBUTE, getElement(driver, locator), text);
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyToElementByJS| - Cannot send key to element by JS: " + e.getMessage());
         }
@@ -1223,9 +1243,9 @@ public class AbstractPage {
      * @param values:  at least a value that will cast to locator
      */
     protected void sendKeyToElementByJS(WebDriver driver, String text, String locator, String... values) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "sendKeyToElementByJS");
         try {
-            jsExecutor = (JavascriptExecutor) driver;
-            jsExecutor.executeScript("arguments[0].setAttribute('value','" + text + "')", getElement(driver, castToParameter(locator, values)));
+            ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SET_VALUE_ATTRIBUTE, getElement(driver, locator, values), text);
         } catch (Exception e) {
             log.error("|AbstractPage| - |sendKeyToElementByJS| - Cannot send key to element by JS: " + e.getMessage());
         }
@@ -1238,9 +1258,9 @@ public class AbstractPage {
      * @param locator: the xpath expression of an element
      */
     protected void clickElementByJS(WebDriver driver, String locator) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "clickElementByJS");
         try {
-            jsExecutor = (JavascriptExecutor) driver;
-            jsExecutor.executeScript("arguments[0].click()", getElement(driver, locator));
+            ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.CLICK, getElement(driver, locator));
         } catch (Exception e) {
             log.error("|AbstractPage| - |clickElementByJS| - Cannot click on element by JS: " + e.getMessage());
         }
@@ -1253,9 +1273,10 @@ public class AbstractPage {
      * @param driver
      */
     protected void openNewTabByJS(WebDriver driver) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "openNewTabByJS");
+        ElementCache.getCache().invalidate(driver);
         try {
-            JavascriptExecutor jse = (JavascriptExecutor) driver;
-            jse.executeScript("window.open()");
+            ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.OPEN_WINDOW);
             ArrayList<String> tabs = new ArrayList<String>(driver.getWindowHandles());
             driver.switchTo().window(tabs.get(1));
         } catch (Exception e) {
@@ -1271,9 +1292,10 @@ public class AbstractPage {
      * @param url:   The address that will navigate to
      */
     protected void navigateToUrlByJS(WebDriver driver, String url) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "navigateToUrlByJS");
+        ElementCache.getCache().invalidate(driver);
         try {
-            jsExecutor = (JavascriptExecutor) driver;
-            jsExecutor.executeScript("window.location='" + url + "'");
+            ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.NAVIGATE, url);
         } catch (Exception e) {
             log.error("|AbstractPage| - |navigateToUrlByJS| - Cannot navigate to url by JS: " + e.getMessage());
         }
@@ -1286,12 +1308,8 @@ public class AbstractPage {
      * @return the domain at the current page
      */
     protected Object getDomainByJS(WebDriver driver) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |getDomainByJS| - Cannot get domain at the current page by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("return document.domain");
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "getDomainByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.GET_DOMAIN);
     }
 
     /**
@@ -1301,12 +1319,8 @@ public class AbstractPage {
      * @return the title at the current page
      */
     protected Object getTitleByJS(WebDriver driver) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |getTitleByJS| - Cannot get title at the current page by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("return document.title");
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "getTitleByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.GET_TITLE);
     }
 
     /**
@@ -1316,20 +1330,16 @@ public class AbstractPage {
      * @return the url address at the current page
      */
     protected Object getUrlByJS(WebDriver driver) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |getUrlByJS| - Cannot get url by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("return document.URL");
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "getUrlByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.GET_URL);
     }
 
 
     protected Object getAuthorAccessTokenByJS(WebDriver driver) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "getAuthorAccessTokenByJS");
         Object token ="";
         try {
-            jsExecutor = (JavascriptExecutor) driver;
-            token = jsExecutor.executeScript("return window.localStorage.getItem('auth0AccessToken')");
+            token = ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.GET_LOCAL_STORAGE_ITEM, "auth0AccessToken");
         } catch (Exception e) {
             log.error("|AbstractPage| - |getAuthorAccessToken| - Cannot get token by JS: " + e.getMessage());
         }
@@ -1344,12 +1354,8 @@ public class AbstractPage {
      * @return the text content of the specified node, and all its descendants
      */
     protected Object getInnerTextByJS(WebDriver driver) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |getInnerTextByJS| - Cannot get inner text by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("return document.documentElement.innerText");
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "getInnerTextByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.GET_INNER_TEXT);
     }
 
     /**
@@ -1361,12 +1367,8 @@ public class AbstractPage {
      * @return
      */
     protected Object scrollToElementByJS(WebDriver driver, String locator, String... values) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |scrollToElementByJS| - Cannot scroll to element by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("arguments[0].scrollIntoView(true)", getElement(driver, castToParameter(locator, values)));
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "scrollToElementByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SCROLL_INTO_VIEW, getElement(driver, locator, values));
     }
 
     /**
@@ -1377,12 +1379,8 @@ public class AbstractPage {
      * @return
      */
     protected Object scrollToElementByJS(WebDriver driver, String locator) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |scrollToElementByJS| - Cannot scroll to element by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("arguments[0].scrollIntoView(true)", getElement(driver, locator));
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "scrollToElementByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SCROLL_INTO_VIEW, getElement(driver, locator));
     }
 
     /**
@@ -1392,12 +1390,8 @@ public class AbstractPage {
      * @return
      */
     protected Object scrollToBottomPageByJS(WebDriver driver) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |scrollToBottomPageByJS| - Cannot scroll to bottom of the page by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("window.scrollBy(0,document.body.scrollHeight)");
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "scrollToBottomPageByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SCROLL_TO_BOTTOM);
     }
 
 
@@ -1408,12 +1402,8 @@ public class AbstractPage {
      * @return
      */
     protected Object scrollToTopPageByJS(WebDriver driver) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |scrollToTopPageByJS| - Cannot scroll to top of the page by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("window.scrollTo(0, 0)");
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "scrollToTopPageByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SCROLL_TO_TOP);
 
     }
 
@@ -1426,12 +1416,8 @@ public class AbstractPage {
      * @return
      */
     protected Object removeAttributeByJS(WebDriver driver, String locator, String attribute) {
-        try {
-            jsExecutor = (JavascriptExecutor) driver;
-        } catch (Exception e) {
-            log.error("|AbstractPage| - |scrollToTopPageByJS| - Cannot remove attribute by JS: " + e.getMessage());
-        }
-        return jsExecutor.executeScript("arguments[0].removeAttribute('" + attribute + "')", getElement(driver, locator));
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "removeAttributeByJS");
+        return ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.REMOVE_ATTRIBUTE, getElement(driver, locator), attribute);
 
     }
 
@@ -1442,12 +1428,9 @@ public class AbstractPage {
      * @param locator: the xpath expression of an element
      */
     protected void highlightElement(WebDriver driver, String locator) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "highlightElement");
         try {
-            element = getElement(driver, locator);
-            String originalStyle = element.getAttribute("style");
-            jsExecutor.executeScript("arguments[0].setAttribute(arguments[1], arguments[2])", element, "style", "border: 2px solid red; border-style: dashed;");
-            sleepInSecond(1);
-            jsExecutor.executeScript("arguments[0].setAttribute(arguments[1], arguments[2])", element, "style", originalStyle);
+            ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.HIGHLIGHT, getElement(driver, locator), GlobalConstants.HIGHLIGHT_MILLIS);
         } catch (Exception e) {
             log.error("|AbstractPage| - |highlightElement| - Cannot highlight an element by JS: " + e.getMessage());
         }
@@ -1461,7 +1444,8 @@ public class AbstractPage {
      * @return a boolean value, true if image is load, else false
      */
     protected boolean isImageLoaded(WebDriver driver, String locator) {
-        boolean status = (boolean) jsExecutor.executeScript("return arguments[0].complete && typeof arguments[0].naturalWidth !=\"underfined\"&& arguments[0].naturalWidth > 0", getElement(driver, locator));
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.IMAGE_LOADING, "isImageLoaded");
+        boolean status = Boolean.TRUE.equals(ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.IS_IMAGE_LOADED, getElement(driver, locator)));
         try {
             if (status == true) {
                 return status;
@@ -1473,15 +1457,18 @@ public class AbstractPage {
     }
 
     /**
-     * To sleep without any conditions
+     * To sleep without any conditions. The time slept is accounted to the running test by {@link SleepAudit}
      *
      * @param time
      */
     protected void sleepInSecond(long time) {
+        long start = System.currentTimeMillis();
         try {
             Thread.sleep(time * 1000);
         } catch (InterruptedException e) {
             log.error("|AbstractPage| - |sleepInSecond| - Sleep in second error: " + e.getMessage());
+        } finally {
+            SleepAudit.getAudit().record(System.currentTimeMillis() - start);
         }
     }
 
@@ -1492,9 +1479,9 @@ public class AbstractPage {
      * @param locator: the xpath expression of all elements
      */
     protected void waitForAllElementsVisible(WebDriver driver, String locator) {
-        explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
         try {
-            explicitWait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(getByXpath(locator)));
+            WaitEngine waitEngine = WaitEngine.getEngine();
+            waitEngine.until(driver, "waitForAllElementsVisible", waitEngine.visibilityOfAll(getByXpath(locator)), GlobalConstants.LONG_TIMEOUT * 1000);
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForAllElementsVisible| - Error wait for all elements are visible : " + e.getMessage());
         }
@@ -1508,9 +1495,9 @@ public class AbstractPage {
      * @param values:  at least a value that will cast to locator
      */
     protected void waitForAllElementsVisible(WebDriver driver, String locator, String... values) {
-        explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
         try {
-            explicitWait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(getByXpath(castToParameter(locator, values))));
+            WaitEngine waitEngine = WaitEngine.getEngine();
+            waitEngine.until(driver, "waitForAllElementsVisible", waitEngine.visibilityOfAll(getByXpath(locator, values)), GlobalConstants.LONG_TIMEOUT * 1000);
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForAllElementsVisible| - Error wait for all elements are visible : " + e.getMessage());
         }
@@ -1523,9 +1510,8 @@ public class AbstractPage {
      * @param locator:the xpath expression of an element
      */
     protected void waitForElementVisible(WebDriver driver, String locator) {
-        explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
         try {
-            explicitWait.until(ExpectedConditions.visibilityOfElementLocated(getByXpath(locator)));
+            ElementCache.getCache().put(driver, getByXpath(locator), EventDrivenWait.getWait().until(driver, "waitForElementVisible", locator, EventDrivenWait.Target.VISIBLE, GlobalConstants.LONG_TIMEOUT * 1000));
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForElementVisible| - Error wait for an element is visible : " + e.getMessage());
         }
@@ -1540,8 +1526,8 @@ public class AbstractPage {
      */
     protected void waitForElementVisible(WebDriver driver, String locator, String... values) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
-            explicitWait.until(ExpectedConditions.visibilityOfElementLocated(getByXpath(castToParameter(locator, values))));
+            String xpath = castToParameter(locator, values);
+            ElementCache.getCache().put(driver, getByXpath(xpath), EventDrivenWait.getWait().until(driver, "waitForElementVisible", xpath, EventDrivenWait.Target.VISIBLE, GlobalConstants.LONG_TIMEOUT * 1000));
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForElementVisible| - Error wait for an element is visible : " + e.getMessage());
         }
@@ -1555,8 +1541,7 @@ public class AbstractPage {
      */
     protected void waitForElementClickable(WebDriver driver, String locator) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
-            explicitWait.until(ExpectedConditions.elementToBeClickable(getByXpath(locator)));
+            ElementCache.getCache().put(driver, getByXpath(locator), EventDrivenWait.getWait().until(driver, "waitForElementClickable", locator, EventDrivenWait.Target.CLICKABLE, GlobalConstants.LONG_TIMEOUT * 1000));
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForElementClickable| - Error wait for an element is clickable : " + e.getMessage());
         }
@@ -1571,8 +1556,8 @@ public class AbstractPage {
      */
     protected void waitForElementClickable(WebDriver driver, String locator, String... values) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
-            explicitWait.until(ExpectedConditions.elementToBeClickable(getByXpath(castToParameter(locator, values))));
+            String xpath = castToParameter(locator, values);
+            ElementCache.getCache().put(driver, getByXpath(xpath), EventDrivenWait.getWait().until(driver, "waitForElementClickable", xpath, EventDrivenWait.Target.CLICKABLE, GlobalConstants.LONG_TIMEOUT * 1000));
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForElementClickable| - Error wait for an element is clickable : " + e.getMessage());
         }
@@ -1586,10 +1571,7 @@ public class AbstractPage {
      */
     protected void waitForElementInvisible(WebDriver driver, String locator) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.SHORT_TIMEOUT);
-            overrideGlobalTimeout(driver, GlobalConstants.SHORT_TIMEOUT);
-            explicitWait.until(ExpectedConditions.invisibilityOfElementLocated(getByXpath(locator)));
-            overrideGlobalTimeout(driver, GlobalConstants.LONG_TIMEOUT);
+            EventDrivenWait.getWait().until(driver, "waitForElementInvisible", locator, EventDrivenWait.Target.INVISIBLE, GlobalConstants.SHORT_TIMEOUT * 1000);
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitForElementInvisible| - Error wait for an element is invisible : " + e.getMessage());
         }
@@ -1602,8 +1584,8 @@ public class AbstractPage {
      */
     protected void waitAlertPresence(WebDriver driver) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
-            explicitWait.until(ExpectedConditions.alertIsPresent());
+            WaitEngine waitEngine = WaitEngine.getEngine();
+            waitEngine.until(driver, "waitAlertPresence", waitEngine.alertPresence(), GlobalConstants.LONG_TIMEOUT * 1000);
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitAlertPresence| - Error wait for an alert is presence : " + e.getMessage());
         }
@@ -1617,8 +1599,7 @@ public class AbstractPage {
      */
     protected void waitElementPresence(WebDriver driver, String locator) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
-            explicitWait.until(ExpectedConditions.presenceOfElementLocated(getByXpath(locator)));
+            ElementCache.getCache().put(driver, getByXpath(locator), EventDrivenWait.getWait().until(driver, "waitElementPresence", locator, EventDrivenWait.Target.PRESENT, GlobalConstants.LONG_TIMEOUT * 1000));
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitElementPresence| - Error wait for an element is presence : " + e.getMessage());
         }
@@ -1632,8 +1613,8 @@ public class AbstractPage {
      */
     protected void waitAllElementsPresence(WebDriver driver, String locator) {
         try {
-            explicitWait = new WebDriverWait(driver, GlobalConstants.LONG_TIMEOUT);
-            explicitWait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(getByXpath(locator)));
+            WaitEngine waitEngine = WaitEngine.getEngine();
+            waitEngine.until(driver, "waitAllElementsPresence", waitEngine.presenceOfAll(getByXpath(locator)), GlobalConstants.LONG_TIMEOUT * 1000);
         } catch (Exception e) {
             log.error("|AbstractPage| - |waitAllElementsPresence| - Error wait for all elements are presence : " + e.getMessage());
         }
@@ -1657,27 +1638,7 @@ public class AbstractPage {
      * @return a boolean value, true if data is sorted ascending, else false
      */
     protected boolean isDataStringSortedAscending(WebDriver driver, String locator) {
-        boolean status = true;
-        try {
-            ArrayList<String> arrayList = new ArrayList<String>();
-            List<WebElement> elementList = driver.findElements(By.xpath(locator));
-            for (WebElement element : elementList) {
-                arrayList.add(element.getText());
-            }
-            ArrayList<String> sortedList = new ArrayList<>();
-            for (String child : arrayList) {
-                sortedList.add(child);
-            }
-            Collections.sort(sortedList);
-            if (sortedList.equals(arrayList)) {
-                return status;
-            }
-        } catch (Exception e) {
-            status = false;
-            log.error("|AbstractPage| - |isDataStringSortedAscending| - Error data string is sorted ascending : " + e.getMessage());
-        }
-        return status;
-
+        return isSorted("isDataStringSortedAscending", verifySorted(driver, locator, SortVerifier.NATURAL, SortVerifier.Order.ASCENDING));
     }
 
     /**
@@ -1688,27 +1649,7 @@ public class AbstractPage {
      * @return a boolean value, true if data is sorted descending, else false
      */
     protected boolean isDataStringSortedDescending(WebDriver driver, String locator) {
-        boolean status = true;
-        try {
-            ArrayList<String> arrayList = new ArrayList<String>();
-            List<WebElement> elementList = driver.findElements(By.xpath(locator));
-            for (WebElement element : elementList) {
-                arrayList.add(element.getText());
-            }
-            ArrayList<String> sortedList = new ArrayList<>();
-            for (String child : arrayList) {
-                sortedList.add(child);
-            }
-            Collections.sort(sortedList);
-            Collections.reverse(sortedList);
-            if (sortedList.equals(arrayList)) {
-                return status;
-            }
-        } catch (Exception e) {
-            status = false;
-            log.error("|AbstractPage| - |isDataStringSortedDescending| - Error data string is sorted descending : " + e.getMessage());
-        }
-        return status;
+        return isSorted("isDataStringSortedDescending", verifySorted(driver, locator, SortVerifier.NATURAL, SortVerifier.Order.DESCENDING));
     }
 
     /**
@@ -1719,26 +1660,7 @@ public class AbstractPage {
      * @return a boolean value, true if data is sorted ascending, else false
      */
     protected boolean isDataFloatSortedAscending(WebDriver driver, String locator) {
-        boolean status = true;
-        try {
-            ArrayList<Float> arrayList = new ArrayList<Float>();
-            List<WebElement> elementList = driver.findElements(By.xpath(locator));
-            for (WebElement element : elementList) {
-                arrayList.add(Float.parseFloat(element.getText().replace("$", "").replace(",", "").trim()));
-            }
-            ArrayList<Float> sortedList = new ArrayList<Float>();
-            for (Float child : arrayList) {
-                sortedList.add(child);
-            }
-            Collections.sort(sortedList);
-            if (sortedList.equals(arrayList)) {
-                return status;
-            }
-        } catch (Exception e) {
-            status = false;
-            log.error("|AbstractPage| - |isDataFloatSortedAscending| - Error data float is sorted ascending : " + e.getMessage());
-        }
-        return status;
+        return isSorted("isDataFloatSortedAscending", verifySorted(driver, locator, SortVerifier.CURRENCY, SortVerifier.Order.ASCENDING));
     }
 
     /**
@@ -1749,27 +1671,7 @@ public class AbstractPage {
      * @return a boolean value, true if data is sorted descending, else false
      */
     protected boolean isDataFloatSortedDescending(WebDriver driver, String locator) {
-        boolean status = true;
-        try {
-            ArrayList<Float> arrayList = new ArrayList<Float>();
-            List<WebElement> elementList = driver.findElements(By.xpath(locator));
-            for (WebElement element : elementList) {
-                arrayList.add(Float.parseFloat(element.getText().replace("$", "").replace(",", "").trim()));
-            }
-            ArrayList<Float> sortedList = new ArrayList<Float>();
-            for (Float child : arrayList) {
-                sortedList.add(child);
-            }
-            Collections.sort(sortedList);
-            Collections.reverse(sortedList);
-            if (sortedList.equals(arrayList)) {
-                return status;
-            }
-        } catch (NumberFormatException e) {
-            status = false;
-            log.error("|AbstractPage| - |isDataFloatSortedDescending| - Error data float is sorted descending : " + e.getMessage());
-        }
-        return status;
+        return isSorted("isDataFloatSortedDescending", verifySorted(driver, locator, SortVerifier.CURRENCY, SortVerifier.Order.DESCENDING));
     }
 
     /**
@@ -1780,26 +1682,7 @@ public class AbstractPage {
      * @return a boolean value, true if data is sorted ascending, else false
      */
     protected boolean isDataDateSortedAscending(WebDriver driver, String locator) {
-        boolean status = true;
-        try {
-            ArrayList<Date> arrayList = new ArrayList<Date>();
-            List<WebElement> elementList = driver.findElements(By.xpath(locator));
-            for (WebElement element : elementList) {
-                arrayList.add(convertStringToDate(element.getText().trim()));
-            }
-            ArrayList<Date> sortedList = new ArrayList<Date>();
-            for (Date child : arrayList) {
-                sortedList.add(child);
-            }
-            Collections.sort(sortedList);
-            if (sortedList.equals(arrayList)) {
-                return status;
-            }
-        } catch (Exception e) {
-            status = false;
-            log.error("|AbstractPage| - |isDataDateSortedAscending| - Error data date is sorted ascending : " + e.getMessage());
-        }
-        return status;
+        return isSorted("isDataDateSortedAscending", verifySorted(driver, locator, DISPLAY_DATE, SortVerifier.Order.ASCENDING));
     }
 
     /**
@@ -1810,27 +1693,40 @@ public class AbstractPage {
      * @return a boolean value, true if data is sorted descending, else false
      */
     protected boolean isDataDateSortedDescending(WebDriver driver, String locator) {
-        boolean status = true;
-        try {
-            ArrayList<Date> arrayList = new ArrayList<Date>();
-            List<WebElement> elementList = driver.findElements(By.xpath(locator));
-            for (WebElement element : elementList) {
-                arrayList.add(convertStringToDate(element.getText().trim()));
-            }
-            ArrayList<Date> sortedList = new ArrayList<Date>();
-            for (Date child : arrayList) {
-                sortedList.add(child);
-            }
-            Collections.sort(sortedList);
-            Collections.reverse(sortedList);
-            if (sortedList.equals(arrayList)) {
-                return status;
-            }
-        } catch (Exception e) {
-            status = false;
-            log.error("|AbstractPage| - |isDataDateSortedDescending| - Error data date is sorted descending : " + e.getMessage());
+        return isSorted("isDataDateSortedDescending", verifySorted(driver, locator, DISPLAY_DATE, SortVerifier.Order.DESCENDING));
+    }
+
+    /**
+     * To check the texts of all elements are in order, comparing them as texts
+     *
+     * @param driver
+     * @param locator:    the xpath expression of all elements which will be sorted
+     * @param comparator: the order of two texts, e.g. {@link SortVerifier#collator(Locale)} for a locale
+     * @param order:      the expected direction
+     * @return the result with the first violating index, if any
+     */
+    protected SortVerifier.Result verifySorted(WebDriver driver, String locator, Comparator<String> comparator, SortVerifier.Order order) {
+        return SortVerifier.verify(getElementsText(driver, locator), comparator, order);
+    }
+
+    /**
+     * To check the texts of all elements are in order, comparing them as numbers, amounts or dates
+     *
+     * @param driver
+     * @param locator: the xpath expression of all elements which will be sorted
+     * @param parser:  turns each text into a number, e.g. {@link SortVerifier#currency(Locale)}
+     * @param order:   the expected direction
+     * @return the result with the first violating or unparsable index, if any
+     */
+    protected SortVerifier.Result verifySorted(WebDriver driver, String locator, SortVerifier.NumericParser parser, SortVerifier.Order order) {
+        return SortVerifier.verify(getElementsText(driver, locator), parser, order);
+    }
+
+    private boolean isSorted(String helper, SortVerifier.Result result) {
+        if (!result.isSorted()) {
+            log.info("|AbstractPage| - |" + helper + "| - " + result);
         }
-        return status;
+        return result.isSorted();
     }
 
     /**
@@ -1862,14 +1758,15 @@ public class AbstractPage {
      * @return a boolean value, true if data is displayed correctly, else false
      */
     protected boolean isDataDisplayedAtTable(WebDriver driver, String locatorColumnName, String locatorColumn, String columnName, String textValue) {
-        boolean check = true;
+        boolean check = false;
         try {
             int indexOfColumnName = getSizeElements(driver, locatorColumnName, columnName) + 1;
             locatorColumn = castToParameter(locatorColumn, String.valueOf(indexOfColumnName));
             List<String> items = getElementsText(driver, locatorColumn);
             for (String s : items) {
                 if (s.contains(textValue)) {
-                    return check;
+                    check = true;
+                    break;
                 }
             }
         } catch (Exception e) {
@@ -1879,6 +1776,38 @@ public class AbstractPage {
         return check;
     }
 
+    /**
+     * To check if data at table is displayed or not, using a snapshot of the whole table that is only captured
+     * again when the table changed
+     *
+     * @param driver
+     * @param tableLocator: the xpath expression of the table element
+     * @param columnName:   column's name on table, or its 1-based position
+     * @param textValue:    expected text value
+     * @return a boolean value, true if a cell of the column contains the text value, else false
+     */
+    protected boolean isDataDisplayedAtTable(WebDriver driver, String tableLocator, String columnName, String textValue) {
+        boolean check = false;
+        try {
+            check = getTableSnapshot(driver, tableLocator).containsText(columnName, textValue);
+        } catch (Exception e) {
+            log.error("|AbstractPage| - |isDataDisplayedAtTable| - Data is not displayed at table: " + e.getMessage());
+        }
+        return check;
+    }
+
+    /**
+     * To get an in-memory copy of a table for many lookups. The copy of an earlier call is reused while the table
+     * did not change
+     *
+     * @param driver
+     * @param tableLocator: the xpath expression of the table element
+     * @return the snapshot of headers and rows
+     */
+    protected TableSnapshot getTableSnapshot(WebDriver driver, String tableLocator) {
+        return TableSnapshot.get(driver, tableLocator);
+    }
+
     /**
      * To check if text result equals keyword or not
      *
@@ -1897,9 +1826,7 @@ public class AbstractPage {
                     checkCount++;
                 }
             }
-            if (listItems.size() == checkCount) {
-                return status;
-            }
+            status = listItems.size() == checkCount;
         } catch (Exception e) {
             status = false;
             log.error("|AbstractPage| - |isResultEqualsKeyword| - Error search result doesn't equals keyword: " + e.getMessage());
@@ -1925,9 +1852,7 @@ public class AbstractPage {
                     checkCount++;
                 }
             }
-            if (listItems.size() == checkCount) {
-                return status;
-            }
+            status = listItems.size() == checkCount;
         } catch (Exception e) {
             status = false;
             log.error("|AbstractPage| - |isResultContainsKeyword| - Error search result doesn't contains keyword: " + e.getMessage());
@@ -1971,15 +1896,17 @@ public class AbstractPage {
      * @param expectedValue:        the value that you want to select
      */
     protected void multipleSelect(WebDriver driver, String xpathLocatorParent, String xpathLocatorAllItems, String... expectedValue) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "multipleSelect");
         try {
+            WaitEngine waitEngine = WaitEngine.getEngine();
             driver.findElement(By.xpath(xpathLocatorParent)).click();
-            explicitWait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.xpath(xpathLocatorAllItems)));
+            waitEngine.until(driver, "multipleSelect", waitEngine.presenceOfAll(getByXpath(xpathLocatorAllItems)), GlobalConstants.LONG_TIMEOUT * 1000);
             List<WebElement> allItems = driver.findElements(By.xpath(xpathLocatorAllItems));
             for (WebElement items : allItems) {
                 for (String item : expectedValue) {
                     if (items.getText().equals(item)) {
-                        jsExecutor.executeScript("arguments[0].scrollIntoView(true)", items);
-                        sleepInSecond(1);
+                        ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SCROLL_INTO_VIEW, items);
+                        QuiescenceDetector.getDetector().awaitIdle(driver);
                         items.click();
                         break;
                     }
@@ -1999,17 +1926,19 @@ public class AbstractPage {
      * @param textExpected
      */
     protected void selectItemInCustomDropdown(WebDriver driver, String xpathLocatorParent, String xpathLocatorAllItems, String textExpected) {
+        DriverCompatibility.require(driver, DriverCompatibility.Feature.JAVASCRIPT, "selectItemInCustomDropdown");
         try {
+            WaitEngine waitEngine = WaitEngine.getEngine();
             driver.findElement(By.xpath(xpathLocatorParent)).click();
-            explicitWait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.xpath(xpathLocatorAllItems)));
+            waitEngine.until(driver, "selectItemInCustomDropdown", waitEngine.presenceOfAll(getByXpath(xpathLocatorAllItems)), GlobalConstants.LONG_TIMEOUT * 1000);
             List<WebElement> listAllElement = driver.findElements(By.xpath(xpathLocatorAllItems));
             for (WebElement itemElement : listAllElement) {
                 if (itemElement.getText().equals(textExpected)) {
-                    jsExecutor.executeScript("arguments[0].scrollIntoView(true)", itemElement);
-                    explicitWait.until(ExpectedConditions.elementToBeClickable(itemElement));
-                    sleepInSecond(2);
+                    ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.SCROLL_INTO_VIEW, itemElement);
+                    waitEngine.until(driver, "selectItemInCustomDropdown", ExpectedConditions.elementToBeClickable(itemElement), GlobalConstants.LONG_TIMEOUT * 1000);
+                    QuiescenceDetector.getDetector().awaitIdle(driver);
                     itemElement.click();
-                    sleepInSecond(2);
+                    QuiescenceDetector.getDetector().awaitIdle(driver);
                     break;
                 }
             }
@@ -1,6 +1,5 @@
 package common;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -8,22 +7,16 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.edge.EdgeDriver;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
-import org.openqa.selenium.safari.SafariDriver;
 import org.testng.Assert;
+import org.testng.ITestResult;
 import org.testng.Reporter;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 public class AbstractTest {
-    private WebDriver driver;
+    private final ThreadLocal<WebDriver> driver = new ThreadLocal<WebDriver>();
     protected final Log log;
     private final String workingDir = System.getProperty("user.dir");
 
@@ -31,8 +24,13 @@ public class AbstractTest {
         log = LogFactory.getLog(getClass());
     }
 
+    /**
+     * To get the driver opened by the current test thread
+     *
+     * @return the driver of the current thread, null if no browser was opened on this thread
+     */
     public WebDriver getDriver() {
-        return driver;
+        return driver.get();
     }
 
 
@@ -120,9 +118,103 @@ public class AbstractTest {
         return checkEquals(actual, expected);
     }
 
+    private boolean checkBudget(long actual, long budget, String measure) {
+        boolean pass = true;
+        try {
+            if (actual <= budget) {
+                log.info(" -------------------------- PASSED -------------------------- ");
+            } else {
+                log.info(" -------------------------- FAILED -------------------------- ");
+            }
+            Assert.assertTrue(actual <= budget, measure + " is " + actual + ", over the budget of " + budget);
+        } catch (Throwable e) {
+            pass = false;
+            log.error("|AbstractTest| - |checkBudget| - Error while assert budget " + e.getMessage());
+            VerificationFailures.getFailures().addFailureForTest(Reporter.getCurrentTestResult(), e);
+            Reporter.getCurrentTestResult().setThrowable(e);
+        }
+        return pass;
+    }
+
+    /**
+     * To start measuring a step of the test, for verifyWallTime and verifyCommandCount
+     *
+     * @param stepName: the name of the step, used in failure messages
+     * @return the started measurement
+     */
+    protected PerformanceBudget startBudget(String stepName) {
+        return PerformanceBudget.start(stepName);
+    }
+
+    /**
+     * To verify a step took at most a wall time
+     *
+     * @param step:      the measurement started by startBudget
+     * @param maxMillis: the budget in milliseconds
+     * @return
+     */
+    protected boolean verifyWallTime(PerformanceBudget step, long maxMillis) {
+        return checkBudget(step.getElapsedMillis(), maxMillis, "Wall time of " + step.getName() + " in ms");
+    }
+
+    /**
+     * To verify a step sent at most a number of driver commands
+     *
+     * @param step:        the measurement started by startBudget
+     * @param maxCommands: the budget in commands
+     * @return
+     */
+    protected boolean verifyCommandCount(PerformanceBudget step, long maxCommands) {
+        return checkBudget(step.getCommandCount(), maxCommands, "Driver commands of " + step.getName());
+    }
+
+    /**
+     * To verify the running test took at most a wall time since it started
+     *
+     * @param maxMillis: the budget in milliseconds
+     * @return
+     */
+    protected boolean verifyTestWallTime(long maxMillis) {
+        ITestResult test = Reporter.getCurrentTestResult();
+        return checkBudget(System.currentTimeMillis() - test.getStartMillis(), maxMillis, "Wall time of " + test.getName() + " in ms");
+    }
+
+    /**
+     * To verify the running test sent at most a number of driver commands since it started
+     *
+     * @param maxCommands: the budget in commands
+     * @return
+     */
+    protected boolean verifyTestCommandCount(long maxCommands) {
+        ITestResult test = Reporter.getCurrentTestResult();
+        return checkBudget(CommandMeter.getMeter().getTestMetrics(test).getCommandCount(), maxCommands, "Driver commands of " + test.getName());
+    }
 
     /**
-     * To start webdriver and open browser
+     * To verify the page in the current window loaded within a time, from the Navigation Timing of the browser.
+     * A page that has not finished loading, or a browser without Navigation Timing, is not checked
+     *
+     * @param driver
+     * @param maxMillis: the budget in milliseconds from navigation start to the end of the load event
+     * @return
+     */
+    protected boolean verifyPageLoadTime(WebDriver driver, long maxMillis) {
+        Object loadTime = null;
+        try {
+            loadTime = ScriptRegistry.getRegistry().execute(driver, ScriptRegistry.GET_PAGE_LOAD_TIME);
+        } catch (Exception e) {
+            log.error("|AbstractTest| - |verifyPageLoadTime| - Cannot read the page load time: " + e.getMessage());
+        }
+        if (!(loadTime instanceof Number) || ((Number) loadTime).longValue() < 0) {
+            log.warn("|AbstractTest| - |verifyPageLoadTime| - Page load time is not available, budget not checked");
+            return true;
+        }
+        return checkBudget(((Number) loadTime).longValue(), maxMillis, "Page load time of " + driver.getCurrentUrl() + " in ms");
+    }
+
+
+    /**
+     * To lease a warm browser from the driver pool and open the url
      *
      * @param browserName: the name of browser that will be opened
      * @param url:         the url that user is navigated
@@ -131,38 +223,9 @@ public class AbstractTest {
     protected WebDriver openBrowserDriver(String browserName, String url) {
         log.debug("|AbstractTest| - |openBrowserDriver|: Open browser and driver");
         BROWSER browser = BROWSER.valueOf(browserName.toUpperCase());
-        if (browser == BROWSER.FIREFOX) {
-            WebDriverManager.firefoxdriver().setup();
-            FirefoxOptions options = new FirefoxOptions();
-            options.addArguments("--disable-infobars");
-            driver = new FirefoxDriver(options);
-        } else if (browser == BROWSER.FIREFOX_HEADLESS) {
-            WebDriverManager.firefoxdriver().setup();
-            FirefoxOptions options = new FirefoxOptions();
-            options.setHeadless(true);
-            options.addArguments("window-size=1920x1080");
-            driver = new FirefoxDriver(options);
-        } else if (browser == BROWSER.CHROME) {
-            WebDriverManager.chromedriver().setup();
-            ChromeOptions options = new ChromeOptions();
-            options.setExperimentalOption("useAutomationExtension", false);
-            options.setExperimentalOption("excludeSwitches", Collections.singletonList("enable-automation"));
-            driver = new ChromeDriver();
-        } else if (browser == BROWSER.CHROME_HEADLESS) {
-            WebDriverManager.chromedriver().setup();
-            ChromeOptions options = new ChromeOptions();
-            options.addArguments("headless");
-            options.addArguments("window-size=1920x1080");
-            driver = new ChromeDriver(options);
-        } else if (browser == BROWSER.EDGE) {
-            WebDriverManager.edgedriver().setup();
-            driver = new EdgeDriver();
-        } else if (browser == BROWSER.SAFARI) {
-            driver = new SafariDriver();
-        } else {
-            log.error("|AbstractTest| - |openBrowserDriver| - Open browser has error");
-            throw new RuntimeException("Please input correct the browser name");
-        }
+        WebDriver driver = DriverPool.getPool().lease(browser);
+        CommandMeter.getMeter().install(driver);
+        this.driver.set(driver);
 
         driver.get(url);
         driver.manage().window().maximize();
@@ -171,38 +234,28 @@ public class AbstractTest {
     }
 
     /**
-     * To close browser and quit driver executable file in Task Manager
+     * To launch the browser of an upcoming test in the background when prefetch is switched on (-Ddriver.prefetch=true)
+     *
+     * @param browserName: the name of browser that the upcoming test will open
+     */
+    protected void prefetchBrowserDriver(String browserName) {
+        DriverPrefetcher.getPrefetcher().prefetch(BROWSER.valueOf(browserName.toUpperCase()));
+    }
+
+    /**
+     * To give the browser back to the driver pool. When the browser is not kept, it is quit in the background and
+     * only the driver and browser processes of this session are reaped
      *
      * @param driver
      */
     protected void closeBrowserAndDriver(WebDriver driver) {
         try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            String cmd = "";
-            if (driver != null) {
-                driver.quit();
-            }
-            if (driver.toString().toLowerCase().contains("chrome")) {
-                if (osName.toLowerCase().contains("mac")) {
-                    cmd = "pkill chromedriver";
-                } else if (osName.toLowerCase().contains("windows")) {
-                    cmd = "taskkill /F /FI \"IMAGENAME eq chromedriver*\"";
-                }
-            } else if (driver.toString().toLowerCase().contains("firefox")) {
-                if (osName.toLowerCase().contains("mac")) {
-                    cmd = "pkill geckodriver";
-                } else if (osName.toLowerCase().contains("windows")) {
-                    cmd = "taskkill /F /FI \"IMAGENAME eq geckodriver*\"";
-                }
-            } else if (driver.toString().toLowerCase().contains("edge")) {
-                if (osName.toLowerCase().contains("mac")) {
-                    cmd = "pkill msedgedriver";
-                } else if (osName.toLowerCase().contains("windows")) {
-                    cmd = "taskkill /F /FI \"IMAGENAME eq msedgedriver*\"";
-                }
+            if (driver == this.driver.get()) {
+                this.driver.remove();
             }
-            Process process = Runtime.getRuntime().exec(cmd);
-            process.waitFor();
+            ElementCache.getCache().invalidate(driver);
+            TableSnapshot.clear(driver);
+            DriverPool.getPool().release(driver);
         } catch (Exception e) {
             log.error("|AbstractTest| - |closeBrowserAndDriver| - Cannot close browser and quit driver: " + e.getMessage());
         }
@@ -228,6 +281,24 @@ public class AbstractTest {
         driver.manage().deleteAllCookies();
     }
 
+    /**
+     * To reset the browser to the state of a fresh one: close extra windows, clear cookies, localStorage,
+     * sessionStorage and IndexedDB of the open origin and navigate to about:blank
+     *
+     * @param driver
+     * @return true if the reset was verified against the checksum of a fresh session
+     */
+    protected boolean resetBrowserSession(WebDriver driver) {
+        BROWSER browser = DriverPool.getPool().getBrowser(driver);
+        if (browser == null) {
+            browser = SessionReset.detectBrowser(driver);
+        }
+        if (browser == null) {
+            log.info("|AbstractTest| - |resetBrowserSession| - Browser of the session is unknown, the reset is left out of the cost report");
+        }
+        return SessionReset.reset(driver, browser);
+    }
+
     /**
      * To check color is converted to string
      *
@@ -258,8 +329,12 @@ public class AbstractTest {
      * @param strPath
      */
     protected void captureIfFailed(String strPath) {
+        if (!DriverCompatibility.supports(driver.get(), DriverCompatibility.Feature.SCREENSHOT)) {
+            log.info("|AbstractTest| - |captureIfFailed| - Browser cannot take screenshots, skip capture");
+            return;
+        }
         try {
-            TakesScreenshot ts = (TakesScreenshot) driver;
+            TakesScreenshot ts = (TakesScreenshot) driver.get();
             File source = ts.getScreenshotAs(OutputType.FILE);
             FileUtils.copyFile(source, new File("strPath"));
             System.out.println("Screenshot taken");
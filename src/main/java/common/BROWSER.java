@@ -1,5 +1,32 @@
 package common;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BROWSER {
-	CHROME, FIREFOX, SAFARI, EDGE, CHROME_HEADLESS, FIREFOX_HEADLESS
+	CHROME, FIREFOX, SAFARI, EDGE, CHROME_HEADLESS, FIREFOX_HEADLESS,
+	CHROME_HEADLESS_LEAN(BrowserOptimization.EAGER_PAGE_LOAD, BrowserOptimization.NO_IMAGES, BrowserOptimization.NO_WEB_FONTS,
+			BrowserOptimization.NO_EXTENSIONS, BrowserOptimization.NO_GPU, BrowserOptimization.NO_BACKGROUND_NETWORKING, BrowserOptimization.MUTE_AUDIO),
+	FIREFOX_HEADLESS_LEAN(BrowserOptimization.EAGER_PAGE_LOAD, BrowserOptimization.NO_IMAGES, BrowserOptimization.NO_WEB_FONTS,
+			BrowserOptimization.NO_GPU, BrowserOptimization.NO_BACKGROUND_NETWORKING, BrowserOptimization.MUTE_AUDIO),
+	HTMLUNIT;
+
+	private final Set<BrowserOptimization> optimizations;
+
+	BROWSER(BrowserOptimization... optimizations) {
+		Set<BrowserOptimization> applied = EnumSet.noneOf(BrowserOptimization.class);
+		applied.addAll(Arrays.asList(optimizations));
+		this.optimizations = Collections.unmodifiableSet(applied);
+	}
+
+	/**
+	 * To list exactly which start-up optimizations are applied to this browser
+	 *
+	 * @return the optimizations, empty for a full rendering browser
+	 */
+	public Set<BrowserOptimization> getOptimizations() {
+		return optimizations;
+	}
 }
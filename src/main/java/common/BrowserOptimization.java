@@ -0,0 +1,25 @@
+package common;
+
+/**
+ * Start-up optimizations that lean browser variants apply. Functional suites that do not need full rendering can
+ * pick a {@link BROWSER} whose optimizations fit them.
+ */
+public enum BrowserOptimization {
+	EAGER_PAGE_LOAD("return from navigation once the DOM is ready, without waiting for sub-resources"),
+	NO_IMAGES("do not load images"),
+	NO_WEB_FONTS("do not download web fonts"),
+	NO_EXTENSIONS("do not load browser extensions"),
+	NO_GPU("disable GPU acceleration"),
+	NO_BACKGROUND_NETWORKING("disable prefetch, safe browsing, updates, sync and telemetry traffic"),
+	MUTE_AUDIO("mute all audio output");
+
+	private final String description;
+
+	BrowserOptimization(String description) {
+		this.description = description;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+}
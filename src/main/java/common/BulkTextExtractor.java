@@ -0,0 +1,101 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the trimmed rendered text of every element matching an xpath. In {@link Mode#BULK} all texts come back
+ * from a single executeScript call instead of one findElements plus one getText round trip per element.
+ * <p>
+ * The script follows the visibility rules of WebDriver getText: an element that is not displayed (display none
+ * on itself or an ancestor, visibility hidden, opacity 0, or zero size without a sized descendant) has an empty
+ * text, hidden descendants are left out through innerText, and non-breaking spaces become plain spaces. Overflow
+ * clipping is not applied. Drivers without a layout engine always use {@link Mode#PER_ELEMENT}.
+ */
+public class BulkTextExtractor {
+    private static final Log log = LogFactory.getLog(BulkTextExtractor.class);
+    private static final String EXTRACT_TEXTS = ElementProbe.VISIBILITY_FUNCTIONS
+            + "var snapshot = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "var texts = [];"
+            + "for (var i = 0; i < snapshot.snapshotLength; i++) {"
+            + "  var node = snapshot.snapshotItem(i);"
+            + "  var text = node.nodeType !== 1 ? node.textContent : (isShown(node) ? node.innerText : '');"
+            + "  texts.push((text || '').replace(/\\u00a0/g, ' ').trim());"
+            + "}"
+            + "return texts;";
+    private static final AtomicLong bulkCalls = new AtomicLong();
+    private static final AtomicLong extractedTexts = new AtomicLong();
+    private static final AtomicLong fallbacks = new AtomicLong();
+
+    public enum Mode {
+        BULK, PER_ELEMENT
+    }
+
+    private BulkTextExtractor() {
+    }
+
+    /**
+     * To get the extraction mode set for the run with -Dtext.extraction.mode
+     *
+     * @return the mode used when a helper does not choose one
+     */
+    public static Mode getDefaultMode() {
+        return GlobalConstants.TEXT_EXTRACTION_MODE;
+    }
+
+    /**
+     * To read the trimmed rendered text of every element matching an xpath
+     *
+     * @param driver
+     * @param xpath: the resolved xpath expression of the elements
+     * @param mode:  BULK for one script call, PER_ELEMENT for one getText call per element
+     * @return the texts in document order, empty if nothing matches
+     */
+    public static List<String> getTexts(WebDriver driver, String xpath, Mode mode) {
+        if (mode == Mode.BULK && DriverCompatibility.supports(driver, DriverCompatibility.Feature.JAVASCRIPT)
+                && DriverCompatibility.supports(driver, DriverCompatibility.Feature.LAYOUT)) {
+            try {
+                List<String> texts = toTexts(((JavascriptExecutor) driver).executeScript(EXTRACT_TEXTS, xpath));
+                bulkCalls.incrementAndGet();
+                extractedTexts.addAndGet(texts.size());
+                return texts;
+            } catch (Exception e) {
+                fallbacks.incrementAndGet();
+                log.warn("|BulkTextExtractor| - |getTexts| - Bulk extraction failed, read texts one by one: " + e.getMessage());
+            }
+        }
+        List<String> texts = new ArrayList<String>();
+        for (WebElement element : driver.findElements(LocatorCache.getCache().getByXpath(xpath))) {
+            texts.add(element.getText().trim());
+        }
+        return texts;
+    }
+
+    /**
+     * To get how many texts were read in bulk; every text is one getText round trip saved
+     *
+     * @return a readable summary of the counters
+     */
+    public static String getStatistics() {
+        return "bulk calls: " + bulkCalls.get() + ", texts: " + extractedTexts.get()
+                + ", round trips saved: " + extractedTexts.get()
+                + ", fallbacks: " + fallbacks.get();
+    }
+
+    private static List<String> toTexts(Object result) {
+        List<String> texts = new ArrayList<String>();
+        if (result instanceof List) {
+            for (Object text : (List<?>) result) {
+                texts.add(text == null ? "" : text.toString());
+            }
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,378 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.Select;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records a sequence of form actions and runs them with as few driver round trips as possible. Consecutive
+ * scriptable steps are compiled into one executeScript call; a native step, e.g. {@link #nativeClick(String)},
+ * splits the batch, so a form is filled with one call before its native submit.
+ * <p>
+ * Scripted steps check the element is displayed and enabled like WebDriver does, but they set values directly and
+ * fire input and change events instead of typing key by key, so key handlers do not run; use
+ * {@link #nativeType(String, String)} for fields that need them. A click that leaves the page should be the last
+ * step or a native one. By default the batch stops at the first failing step and skips the rest; drivers without
+ * JavaScript or a layout engine run every step natively.
+ * <p>
+ * Usage: {@code CommandBatch.on(driver).type(emailXpath, email).check(termsXpath).nativeClick(submitXpath).execute()}
+ */
+public class CommandBatch {
+    private static final String RUN_STEPS = "var operations = arguments[0], xpaths = arguments[1], values = arguments[2], stopOnError = arguments[3], results = [];"
+            + ElementProbe.VISIBILITY_FUNCTIONS
+            + "var fire = function (element, type) { element.dispatchEvent(new Event(type, {bubbles: true})); };"
+            + TextEntry.SET_VALUE_FUNCTION
+            + "for (var i = 0; i < operations.length; i++) {"
+            + "  try {"
+            + "    var element = document.evaluate(xpaths[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+            + "    if (!element || element.nodeType !== 1) { throw new Error('no element matches ' + xpaths[i]); }"
+            + "    if (!isShown(element) || element.disabled) { throw new Error('element is not interactable: ' + xpaths[i]); }"
+            + "    if (operations[i] === 'TYPE') {"
+            + "      if (!(element instanceof HTMLInputElement || element instanceof HTMLTextAreaElement)) { throw new Error('element is not a text field: ' + xpaths[i]); }"
+            + "      element.focus();"
+            + "      setValue(element, values[i]);"
+            + "      fire(element, 'input');"
+            + "      fire(element, 'change');"
+            + "    } else if (operations[i] === 'CHECK' || operations[i] === 'UNCHECK') {"
+            + "      if (!!element.checked !== (operations[i] === 'CHECK')) { element.click(); }"
+            + "    } else if (operations[i] === 'SELECT') {"
+            + "      if (!(element instanceof HTMLSelectElement)) { throw new Error('element is not a select: ' + xpaths[i]); }"
+            + "      var found = false;"
+            + "      for (var o = 0; o < element.options.length && (!found || element.multiple); o++) {"
+            + "        if (element.options[o].text.replace(/\\s+/g, ' ').trim() === values[i]) { element.options[o].selected = true; found = true; }"
+            + "      }"
+            + "      if (!found) { throw new Error('cannot locate option with text: ' + values[i]); }"
+            + "      fire(element, 'input');"
+            + "      fire(element, 'change');"
+            + "    } else {"
+            + "      element.click();"
+            + "    }"
+            + "    results.push(null);"
+            + "  } catch (e) {"
+            + "    results.push(String(e && e.message ? e.message : e));"
+            + "    if (stopOnError) { break; }"
+            + "  }"
+            + "}"
+            + "return results;";
+    private final Log log = LogFactory.getLog(getClass());
+    private final WebDriver driver;
+    private final List<Step> steps = new ArrayList<Step>();
+    private boolean stopOnError = true;
+
+    private enum Operation {
+        TYPE, CHECK, UNCHECK, SELECT, CLICK
+    }
+
+    /**
+     * The outcome of one step
+     */
+    public enum Status {
+        DONE, FAILED, SKIPPED
+    }
+
+    private CommandBatch(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * To start a batch of actions on the current page
+     *
+     * @param driver
+     * @return an empty batch
+     */
+    public static CommandBatch on(WebDriver driver) {
+        return new CommandBatch(driver);
+    }
+
+    /**
+     * To replace the content of a text box, like sendKeyToElement. A text with WebDriver keys, e.g. Keys.ENTER, is
+     * typed through WebDriver so the keys are pressed instead of being set as characters
+     *
+     * @param xpath: the resolved xpath expression of the text box
+     * @param text
+     */
+    public CommandBatch type(String xpath, String text) {
+        return add(Operation.TYPE, xpath, text, TextEntry.indexOfKey(text) >= 0);
+    }
+
+    public CommandBatch check(String xpath) {
+        return add(Operation.CHECK, xpath, null, false);
+    }
+
+    public CommandBatch uncheck(String xpath) {
+        return add(Operation.UNCHECK, xpath, null, false);
+    }
+
+    /**
+     * To select the options of a dropdown by their text, like selectItemByVisible
+     *
+     * @param xpath:    the resolved xpath expression of the select element
+     * @param itemText: the text of the option
+     */
+    public CommandBatch select(String xpath, String itemText) {
+        return add(Operation.SELECT, xpath, itemText, false);
+    }
+
+    /**
+     * To click an element from the page script, without hit testing
+     *
+     * @param xpath: the resolved xpath expression of the element
+     */
+    public CommandBatch click(String xpath) {
+        return add(Operation.CLICK, xpath, null, false);
+    }
+
+    /**
+     * To replace the content of a text box by typing key by key through WebDriver
+     *
+     * @param xpath: the resolved xpath expression of the text box
+     * @param text
+     */
+    public CommandBatch nativeType(String xpath, String text) {
+        return add(Operation.TYPE, xpath, text, true);
+    }
+
+    /**
+     * To click an element through WebDriver, e.g. a submit button that leaves the page
+     *
+     * @param xpath: the resolved xpath expression of the element
+     */
+    public CommandBatch nativeClick(String xpath) {
+        return add(Operation.CLICK, xpath, null, true);
+    }
+
+    /**
+     * To run every step even when an earlier one failed
+     */
+    public CommandBatch continueOnError() {
+        stopOnError = false;
+        return this;
+    }
+
+    /**
+     * To run the recorded steps in order
+     *
+     * @return the result of every step and the number of driver calls the batch took
+     */
+    public Result execute() {
+        List<StepResult> results = new ArrayList<StepResult>();
+        boolean scriptable = DriverCompatibility.supports(driver, DriverCompatibility.Feature.JAVASCRIPT)
+                && DriverCompatibility.supports(driver, DriverCompatibility.Feature.LAYOUT);
+        boolean failed = false;
+        int scriptCalls = 0;
+        int nativeSteps = 0;
+        int index = 0;
+        while (index < steps.size()) {
+            if (failed && stopOnError) {
+                results.add(new StepResult(steps.get(index++), Status.SKIPPED, null));
+                continue;
+            }
+            if (!scriptable || steps.get(index).nativeOnly) {
+                nativeSteps++;
+                StepResult result = runNative(steps.get(index++));
+                failed |= result.status == Status.FAILED;
+                results.add(result);
+                continue;
+            }
+            int end = index;
+            while (end < steps.size() && !steps.get(end).nativeOnly) {
+                end++;
+            }
+            scriptCalls++;
+            List<StepResult> segment = runScript(steps.subList(index, end));
+            for (StepResult result : segment) {
+                failed |= result.status == Status.FAILED;
+            }
+            results.addAll(segment);
+            index = end;
+        }
+        ElementCache.getCache().invalidate(driver);
+        Result result = new Result(results, scriptCalls, nativeSteps);
+        log.debug("|CommandBatch| - |execute|: " + result.getSummary());
+        return result;
+    }
+
+    private CommandBatch add(Operation operation, String xpath, String value, boolean nativeOnly) {
+        steps.add(new Step(steps.size(), operation, xpath, value, nativeOnly));
+        return this;
+    }
+
+    private List<StepResult> runScript(List<Step> segment) {
+        List<String> operations = new ArrayList<String>();
+        List<String> xpaths = new ArrayList<String>();
+        List<String> values = new ArrayList<String>();
+        for (Step step : segment) {
+            operations.add(step.operation.name());
+            xpaths.add(step.xpath);
+            values.add(step.value == null ? "" : step.value);
+        }
+        List<StepResult> results = new ArrayList<StepResult>();
+        List<?> errors;
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(RUN_STEPS, operations, xpaths, values, stopOnError);
+            errors = result instanceof List ? (List<?>) result : Collections.emptyList();
+        } catch (Exception e) {
+            log.error("|CommandBatch| - |runScript| - Cannot run " + segment.size() + " steps in one script: " + e.getMessage());
+            for (Step step : segment) {
+                results.add(new StepResult(step, Status.FAILED, e.getMessage()));
+            }
+            return results;
+        }
+        for (int i = 0; i < segment.size(); i++) {
+            if (i >= errors.size()) {
+                results.add(new StepResult(segment.get(i), Status.SKIPPED, null));
+            } else if (errors.get(i) == null) {
+                results.add(new StepResult(segment.get(i), Status.DONE, null));
+            } else {
+                results.add(new StepResult(segment.get(i), Status.FAILED, errors.get(i).toString()));
+            }
+        }
+        return results;
+    }
+
+    private StepResult runNative(Step step) {
+        try {
+            By by = LocatorCache.getCache().getByXpath(step.xpath);
+            WebElement element = ElementCache.getCache().isEnabled() ? ElementCache.getCache().find(driver, by) : driver.findElement(by);
+            switch (step.operation) {
+                case TYPE:
+                    element.clear();
+                    element.sendKeys(step.value);
+                    break;
+                case CHECK:
+                case UNCHECK:
+                    if (element.isSelected() != (step.operation == Operation.CHECK)) {
+                        element.click();
+                    }
+                    break;
+                case SELECT:
+                    new Select(element).selectByVisibleText(step.value);
+                    break;
+                default:
+                    element.click();
+            }
+            return new StepResult(step, Status.DONE, null);
+        } catch (Exception e) {
+            return new StepResult(step, Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * One recorded action
+     */
+    private static class Step {
+        private final int index;
+        private final Operation operation;
+        private final String xpath;
+        private final String value;
+        private final boolean nativeOnly;
+
+        private Step(int index, Operation operation, String xpath, String value, boolean nativeOnly) {
+            this.index = index;
+            this.operation = operation;
+            this.xpath = xpath;
+            this.value = value;
+            this.nativeOnly = nativeOnly;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + (nativeOnly ? "native " : "") + operation.name().toLowerCase() + " " + xpath;
+        }
+    }
+
+    /**
+     * The outcome of one step; typed texts are left out of the description
+     */
+    public static class StepResult {
+        private final String description;
+        private final Status status;
+        private final String error;
+
+        private StepResult(Step step, Status status, String error) {
+            this.description = step.toString();
+            this.status = status;
+            this.error = error;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return description + ": " + status + (error == null ? "" : " (" + error + ")");
+        }
+    }
+
+    /**
+     * The outcome of a batch
+     */
+    public static class Result {
+        private final List<StepResult> steps;
+        private final int scriptCalls;
+        private final int nativeSteps;
+
+        private Result(List<StepResult> steps, int scriptCalls, int nativeSteps) {
+            this.steps = Collections.unmodifiableList(steps);
+            this.scriptCalls = scriptCalls;
+            this.nativeSteps = nativeSteps;
+        }
+
+        /**
+         * To check every step was done
+         *
+         * @return true if no step failed or was skipped
+         */
+        public boolean isSuccessful() {
+            for (StepResult step : steps) {
+                if (step.status != Status.DONE) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public List<StepResult> getSteps() {
+            return steps;
+        }
+
+        public int getScriptCalls() {
+            return scriptCalls;
+        }
+
+        public int getNativeSteps() {
+            return nativeSteps;
+        }
+
+        public String getSummary() {
+            return steps.size() + " steps in " + scriptCalls + " script calls and " + nativeSteps + " native steps"
+                    + (isSuccessful() ? "" : ", not all done");
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder(getSummary());
+            for (StepResult step : steps) {
+                result.append(System.lineSeparator()).append("  ").append(step);
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.testng.ISuite;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts every wire command a driver sends and records its latency, per command name, for the running test and for
+ * the suite. The meter sits between the driver and its CommandExecutor, so the driver object stays the same for the
+ * pool, the caches and instanceof checks, and commands of element handles are counted as well. Drivers that do not
+ * talk to a remote end, e.g. HtmlUnit, are not metered.
+ * <p>
+ * A test's metrics are stored on its {@link ITestResult} under {@link #TEST_METRICS} and its suite's on the
+ * {@link ISuite} under {@link #SUITE_METRICS}, so a run with several suites reports each of them on its own;
+ * {@link CommandMeterListener} logs them after each test and each suite. Commands sent outside a test or
+ * configuration method, e.g. background quits, are not attributed. Switch it off with -Dcommand.metering=false.
+ */
+public class CommandMeter {
+    public static final String TEST_METRICS = "commandMeter.metrics";
+    public static final String SUITE_METRICS = "commandMeter.suiteMetrics";
+    private final Log log = LogFactory.getLog(getClass());
+    private final ThreadLocal<Metrics> current = new ThreadLocal<Metrics>();
+
+    public static synchronized CommandMeter getMeter() {
+        if (meter == null) {
+            meter = new CommandMeter();
+        }
+        return meter;
+    }
+
+    private CommandMeter() {
+    }
+
+    /**
+     * To meter the commands of a driver; a driver that is already metered, e.g. a pooled one, is left as it is
+     *
+     * @param driver
+     * @return true if the commands of the driver are metered
+     */
+    public boolean install(WebDriver driver) {
+        if (!GlobalConstants.COMMAND_METERING || !(driver instanceof RemoteWebDriver)) {
+            return false;
+        }
+        RemoteWebDriver remoteDriver = (RemoteWebDriver) driver;
+        CommandExecutor executor = remoteDriver.getCommandExecutor();
+        if (executor instanceof MeteringExecutor) {
+            return true;
+        }
+        if (executor == null) {
+            return false;
+        }
+        try {
+            Method setCommandExecutor = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+            setCommandExecutor.setAccessible(true);
+            setCommandExecutor.invoke(remoteDriver, new MeteringExecutor(executor));
+            return true;
+        } catch (Exception e) {
+            log.warn("|CommandMeter| - |install| - Cannot meter driver commands: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * To get the metrics of the test running on the current thread
+     *
+     * @return the metrics of the running test, empty metrics outside a test
+     */
+    public Metrics getTestMetrics() {
+        ITestResult test = Reporter.getCurrentTestResult();
+        return test == null ? new Metrics() : getTestMetrics(test);
+    }
+
+    /**
+     * To get the metrics of a test
+     *
+     * @param test
+     * @return the metrics of the test, created on first use
+     */
+    public Metrics getTestMetrics(ITestResult test) {
+        Object metrics = test.getAttribute(TEST_METRICS);
+        if (metrics instanceof Metrics) {
+            return (Metrics) metrics;
+        }
+        Metrics created = new Metrics();
+        test.setAttribute(TEST_METRICS, created);
+        return created;
+    }
+
+    /**
+     * To get the metrics of a suite
+     *
+     * @param suite
+     * @return the metrics of the tests of the suite, created on first use
+     */
+    public Metrics getSuiteMetrics(ISuite suite) {
+        synchronized (suite) {
+            Object metrics = suite.getAttribute(SUITE_METRICS);
+            if (metrics instanceof Metrics) {
+                return (Metrics) metrics;
+            }
+            Metrics created = new Metrics();
+            suite.setAttribute(SUITE_METRICS, created);
+            return created;
+        }
+    }
+
+    private void record(String command, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        ITestResult test = Reporter.getCurrentTestResult();
+        if (test == null) {
+            return;
+        }
+        Metrics metrics = current.get();
+        if (metrics == null || metrics.test != test) {
+            metrics = getTestMetrics(test);
+            metrics.test = test;
+            metrics.suite = test.getTestContext() == null ? null : getSuiteMetrics(test.getTestContext().getSuite());
+            current.set(metrics);
+        }
+        metrics.record(command, micros);
+        if (metrics.suite != null) {
+            metrics.suite.record(command, micros);
+        }
+    }
+
+    /**
+     * Sends a command through the original executor and records how long it took
+     */
+    private class MeteringExecutor implements CommandExecutor {
+        private final CommandExecutor delegate;
+
+        private MeteringExecutor(CommandExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return delegate.execute(command);
+            } finally {
+                record(command.getName(), start);
+            }
+        }
+    }
+
+    /**
+     * Command counts and latencies of a test or of the suite
+     */
+    public static class Metrics {
+        private final LatencyHistogram commands = new LatencyHistogram();
+        private final ConcurrentMap<String, LatencyHistogram> byName = new ConcurrentHashMap<String, LatencyHistogram>();
+        private volatile ITestResult test;
+        private volatile Metrics suite;
+
+        private void record(String command, long micros) {
+            commands.record(micros);
+            LatencyHistogram histogram = byName.get(command);
+            if (histogram == null) {
+                LatencyHistogram created = new LatencyHistogram();
+                histogram = byName.putIfAbsent(command, created);
+                if (histogram == null) {
+                    histogram = created;
+                }
+            }
+            histogram.record(micros);
+        }
+
+        public long getCommandCount() {
+            return commands.getCount();
+        }
+
+        public long getDriverMicros() {
+            return commands.getTotalMicros();
+        }
+
+        public LatencyHistogram getLatency() {
+            return commands;
+        }
+
+        /**
+         * To get how many times each command was sent
+         *
+         * @return the count per command name, the command with the most driver time first
+         */
+        public Map<String, Long> getCommandCounts() {
+            Map<String, Long> counts = new LinkedHashMap<String, Long>();
+            for (Map.Entry<String, LatencyHistogram> entry : sortByDriverTime()) {
+                counts.put(entry.getKey(), entry.getValue().getCount());
+            }
+            return counts;
+        }
+
+        /**
+         * To summarize the commands against the wall time they were sent in
+         *
+         * @param wallMicros: the wall time of the test or suite, 0 if unknown
+         * @param top:        how many command names to list
+         * @return a readable summary
+         */
+        public String getSummary(long wallMicros, int top) {
+            StringBuilder summary = new StringBuilder(commands.toString());
+            summary.append(", driver time: ").append(LatencyHistogram.toMillis(getDriverMicros()));
+            if (wallMicros > 0) {
+                summary.append(", framework time: ").append(LatencyHistogram.toMillis(Math.max(0, wallMicros - getDriverMicros())))
+                        .append(" of ").append(LatencyHistogram.toMillis(wallMicros));
+            }
+            List<Map.Entry<String, LatencyHistogram>> entries = sortByDriverTime();
+            for (int i = 0; i < Math.min(top, entries.size()); i++) {
+                LatencyHistogram histogram = entries.get(i).getValue();
+                summary.append(i == 0 ? "; by command: " : ", ").append(entries.get(i).getKey()).append(" ").append(histogram.getCount())
+                        .append(" in ").append(LatencyHistogram.toMillis(histogram.getTotalMicros()));
+            }
+            return summary.toString();
+        }
+
+        private List<Map.Entry<String, LatencyHistogram>> sortByDriverTime() {
+            List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<Map.Entry<String, LatencyHistogram>>(byName.entrySet());
+            Collections.sort(entries, new Comparator<Map.Entry<String, LatencyHistogram>>() {
+                @Override
+                public int compare(Map.Entry<String, LatencyHistogram> first, Map.Entry<String, LatencyHistogram> second) {
+                    return Long.compare(second.getValue().getTotalMicros(), first.getValue().getTotalMicros());
+                }
+            });
+            return entries;
+        }
+    }
+
+    private static CommandMeter meter;
+}
@@ -0,0 +1,59 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Logs the driver commands of every test and of the suite metered by {@link CommandMeter}: command count,
+ * p50/p95/p99 latency, and the time spent waiting for the driver against the time spent in the framework and the
+ * test itself. It is registered for every suite through META-INF/services/org.testng.ITestNGListener.
+ */
+public class CommandMeterListener implements IInvokedMethodListener, ISuiteListener {
+    private static final String STARTED_NANOS = "commandMeter.startedNanos";
+    private static final int TOP_COMMANDS = 5;
+    private final Log log = LogFactory.getLog(getClass());
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            testResult.setAttribute(STARTED_NANOS, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        Object started = testResult.getAttribute(STARTED_NANOS);
+        if (!method.isTestMethod() || !(started instanceof Long)) {
+            return;
+        }
+        CommandMeter.Metrics metrics = CommandMeter.getMeter().getTestMetrics(testResult);
+        if (metrics.getCommandCount() == 0) {
+            return;
+        }
+        String summary = metrics.getSummary((System.nanoTime() - (Long) started) / 1000, TOP_COMMANDS);
+        Reporter.log("Driver commands: " + summary);
+        log.info("|CommandMeterListener| - |afterInvocation|: " + testResult.getTestClass().getName() + "." + testResult.getName() + " commands " + summary);
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        suite.setAttribute(STARTED_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        CommandMeter.Metrics metrics = CommandMeter.getMeter().getSuiteMetrics(suite);
+        Object started = suite.getAttribute(STARTED_NANOS);
+        if (metrics.getCommandCount() > 0) {
+            long wallMicros = started instanceof Long ? (System.nanoTime() - (Long) started) / 1000 : 0;
+            log.info("|CommandMeterListener| - |onFinish|: Driver commands of " + suite.getName() + ": "
+                    + metrics.getSummary(wallMicros, TOP_COMMANDS));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package common;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Resolves each driver executable once per JVM and remembers the result in a manifest on the machine, so later
+ * runs find the binary without WebDriverManager version lookups and can run fully offline.
+ */
+public class DriverBinaryResolver {
+    private static final Log log = LogFactory.getLog(DriverBinaryResolver.class);
+    private static final Map<DriverBinary, String> resolvedPaths = new EnumMap<DriverBinary, String>(DriverBinary.class);
+    private static final Map<DriverBinary, Long> resolveMillis = new EnumMap<DriverBinary, Long>(DriverBinary.class);
+    private static Properties manifest;
+
+    public enum DriverBinary {
+        CHROMEDRIVER("webdriver.chrome.driver"),
+        GECKODRIVER("webdriver.gecko.driver"),
+        MSEDGEDRIVER("webdriver.edge.driver");
+
+        private final String systemProperty;
+
+        DriverBinary(String systemProperty) {
+            this.systemProperty = systemProperty;
+        }
+
+        public String getSystemProperty() {
+            return systemProperty;
+        }
+    }
+
+    private DriverBinaryResolver() {
+    }
+
+    /**
+     * To get the driver executable that a browser needs
+     *
+     * @param browser
+     * @return the driver binary, null if the browser ships its own driver
+     */
+    public static DriverBinary getDriverBinary(BROWSER browser) {
+        switch (browser) {
+            case CHROME:
+            case CHROME_HEADLESS:
+            case CHROME_HEADLESS_LEAN:
+                return DriverBinary.CHROMEDRIVER;
+            case FIREFOX:
+            case FIREFOX_HEADLESS:
+            case FIREFOX_HEADLESS_LEAN:
+                return DriverBinary.GECKODRIVER;
+            case EDGE:
+                return DriverBinary.MSEDGEDRIVER;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * To make the driver executable of a browser available to Selenium. The first call in the JVM looks at the
+     * system property, then the manifest and only then asks WebDriverManager; later calls are a map lookup
+     *
+     * @param browser
+     * @return the absolute path of the driver executable, null if the browser does not need one
+     */
+    public static synchronized String resolve(BROWSER browser) {
+        DriverBinary binary = getDriverBinary(browser);
+        if (binary == null) {
+            return null;
+        }
+        String path = resolvedPaths.get(binary);
+        if (path != null) {
+            return path;
+        }
+
+        long start = System.nanoTime();
+        String source;
+        path = System.getProperty(binary.getSystemProperty());
+        if (isExecutable(path)) {
+            source = "system property";
+        } else {
+            path = GlobalConstants.DRIVER_MANIFEST_REFRESH ? null : getManifest().getProperty(binary.name());
+            if (isExecutable(path)) {
+                source = "manifest";
+            } else if (GlobalConstants.DRIVER_OFFLINE) {
+                log.error("|DriverBinaryResolver| - |resolve| - No usable " + binary + " in manifest " + GlobalConstants.DRIVER_MANIFEST_PATH);
+                throw new RuntimeException("Cannot resolve " + binary + " offline, please run once with network access or set -D" + binary.getSystemProperty());
+            } else {
+                path = downloadDriver(binary);
+                source = "WebDriverManager";
+                saveToManifest(binary, path);
+            }
+        }
+        System.setProperty(binary.getSystemProperty(), path);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        resolvedPaths.put(binary, path);
+        resolveMillis.put(binary, elapsed);
+        log.info("|DriverBinaryResolver| - |resolve|: Resolved " + binary + " from " + source + " in " + elapsed + " ms: " + path);
+        return path;
+    }
+
+    /**
+     * To resolve the driver executable of a browser again through WebDriverManager, e.g. after the browser updated
+     * itself and no longer matches the driver in the manifest, and to rewrite the manifest entry
+     *
+     * @param browser
+     * @return true if a different driver executable was resolved, so a failed launch is worth retrying
+     */
+    public static synchronized boolean refresh(BROWSER browser) {
+        DriverBinary binary = getDriverBinary(browser);
+        if (binary == null) {
+            return false;
+        }
+        if (GlobalConstants.DRIVER_OFFLINE) {
+            log.error("|DriverBinaryResolver| - |refresh| - Cannot refresh " + binary + " offline, please run once with network access");
+            return false;
+        }
+        String previous = resolvedPaths.get(binary);
+        long start = System.nanoTime();
+        String path;
+        try {
+            path = downloadDriver(binary);
+        } catch (RuntimeException e) {
+            log.error("|DriverBinaryResolver| - |refresh| - Cannot refresh " + binary + ": " + e.getMessage());
+            return false;
+        }
+        if (!isExecutable(path) || path.equals(previous)) {
+            log.warn("|DriverBinaryResolver| - |refresh|: WebDriverManager resolved the same " + binary + ", nothing to retry");
+            return false;
+        }
+        System.setProperty(binary.getSystemProperty(), path);
+        saveToManifest(binary, path);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        resolvedPaths.put(binary, path);
+        resolveMillis.put(binary, elapsed);
+        log.info("|DriverBinaryResolver| - |refresh|: Replaced " + binary + " " + (previous == null ? "unknown" : versionFromPath(previous))
+                + " by " + versionFromPath(path) + " in " + elapsed + " ms: " + path);
+        return true;
+    }
+
+    /**
+     * To get the version folder of a resolved driver executable, e.g. the WebDriverManager cache folder name
+     *
+     * @param binary
+     * @return the version of the driver, "unknown" if it cannot be told from the path
+     */
+    public static synchronized String getDriverVersion(DriverBinary binary) {
+        String path = resolvedPaths.get(binary);
+        if (path != null) {
+            return versionFromPath(path);
+        }
+        return getManifest().getProperty(binary.name() + ".version", "unknown");
+    }
+
+    /**
+     * To get how long each driver executable took to resolve in this JVM
+     *
+     * @return a readable summary of the resolution time per driver
+     */
+    public static synchronized String getStatistics() {
+        StringBuilder statistics = new StringBuilder();
+        for (Map.Entry<DriverBinary, Long> entry : resolveMillis.entrySet()) {
+            if (statistics.length() > 0) {
+                statistics.append(", ");
+            }
+            statistics.append(entry.getKey()).append(": ").append(entry.getValue()).append(" ms");
+        }
+        return statistics.toString();
+    }
+
+    private static String downloadDriver(DriverBinary binary) {
+        if (binary == DriverBinary.CHROMEDRIVER) {
+            WebDriverManager.chromedriver().setup();
+        } else if (binary == DriverBinary.GECKODRIVER) {
+            WebDriverManager.firefoxdriver().setup();
+        } else {
+            WebDriverManager.edgedriver().setup();
+        }
+        return System.getProperty(binary.getSystemProperty());
+    }
+
+    private static boolean isExecutable(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        File file = new File(path);
+        return file.isFile() && file.canExecute();
+    }
+
+    private static String versionFromPath(String path) {
+        File parent = new File(path).getParentFile();
+        return parent == null ? "unknown" : parent.getName();
+    }
+
+    private static Properties getManifest() {
+        if (manifest == null) {
+            manifest = new Properties();
+            File file = new File(GlobalConstants.DRIVER_MANIFEST_PATH);
+            if (file.isFile()) {
+                InputStream input = null;
+                try {
+                    input = new FileInputStream(file);
+                    manifest.load(input);
+                } catch (IOException e) {
+                    log.error("|DriverBinaryResolver| - |getManifest| - Cannot read driver manifest: " + e.getMessage());
+                } finally {
+                    closeQuietly(input);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private static void saveToManifest(DriverBinary binary, String path) {
+        Properties properties = getManifest();
+        properties.setProperty(binary.name(), path);
+        properties.setProperty(binary.name() + ".version", versionFromPath(path));
+        File file = new File(GlobalConstants.DRIVER_MANIFEST_PATH);
+        OutputStream output = null;
+        try {
+            File folder = file.getAbsoluteFile().getParentFile();
+            folder.mkdirs();
+            File temp = File.createTempFile("drivers", ".properties", folder);
+            output = new FileOutputStream(temp);
+            properties.store(output, "Driver executables resolved by DriverBinaryResolver");
+            output.close();
+            output = null;
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("|DriverBinaryResolver| - |saveToManifest| - Cannot write driver manifest: " + e.getMessage());
+        } finally {
+            closeQuietly(output);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.error("|DriverBinaryResolver| - |closeQuietly| - Cannot close stream: " + e.getMessage());
+            }
+        }
+    }
+}
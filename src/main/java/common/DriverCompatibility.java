@@ -0,0 +1,72 @@
+package common;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+/**
+ * Tells page helpers which browser features the current driver really has. The in-JVM {@link BROWSER#HTMLUNIT}
+ * driver builds a DOM and runs JavaScript, but it has no layout, does not download images and cannot take
+ * screenshots; helpers that depend on those features call {@link #require(WebDriver, Feature, String)} before
+ * their usual error handling, so they fail fast instead of silently doing nothing.
+ */
+public class DriverCompatibility {
+
+    public enum Feature {
+        JAVASCRIPT("executing JavaScript"),
+        LAYOUT("a rendered layout (mouse positions, drag and drop, click and hold)"),
+        IMAGE_LOADING("downloading and decoding images"),
+        SCREENSHOT("taking screenshots");
+
+        private final String description;
+
+        Feature(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private DriverCompatibility() {
+    }
+
+    /**
+     * To check the driver offers a browser feature
+     *
+     * @param driver
+     * @param feature: the feature the caller needs
+     * @return true if the feature works with this driver
+     */
+    public static boolean supports(WebDriver driver, Feature feature) {
+        boolean domOnly = driver instanceof HtmlUnitDriver;
+        switch (feature) {
+            case JAVASCRIPT:
+                return driver instanceof JavascriptExecutor && (!domOnly || ((HtmlUnitDriver) driver).isJavascriptEnabled());
+            case LAYOUT:
+            case IMAGE_LOADING:
+                return !domOnly;
+            case SCREENSHOT:
+                return driver instanceof TakesScreenshot;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * To fail fast when a helper needs a browser feature the driver does not have
+     *
+     * @param driver
+     * @param feature: the feature the helper needs
+     * @param helper:  the name of the helper, used in the error message
+     * @throws UnsupportedOperationException if the driver does not offer the feature
+     */
+    public static void require(WebDriver driver, Feature feature, String helper) {
+        if (!supports(driver, feature)) {
+            throw new UnsupportedOperationException("|" + helper + "| needs " + feature.getDescription() + ", which "
+                    + driver.getClass().getSimpleName() + " does not support. Run this test class with a real browser");
+        }
+    }
+}
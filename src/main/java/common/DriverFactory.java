@@ -0,0 +1,241 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.openqa.selenium.remote.service.DriverService;
+import org.openqa.selenium.safari.SafariDriver;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+public class DriverFactory {
+    private static final Log log = LogFactory.getLog(DriverFactory.class);
+
+    private DriverFactory() {
+    }
+
+    /**
+     * To launch a brand-new browser and driver. The driver executable is started through an explicit driver service
+     * so the processes of the session can be registered and reaped later
+     *
+     * @param browser: the type of browser that will be launched
+     * @return the new driver session
+     */
+    public static WebDriver createDriver(BROWSER browser) {
+        return createDriver(browser, true);
+    }
+
+    /**
+     * To launch a brand-new browser and driver. When the browser refuses the session, e.g. because it updated itself
+     * past the driver in the manifest, the driver executable is resolved again and the launch is retried once
+     *
+     * @param browser:         the type of browser that will be launched
+     * @param retryOnMismatch: whether to refresh the driver executable and retry when no session could be created
+     * @return the new driver session
+     */
+    private static WebDriver createDriver(BROWSER browser, boolean retryOnMismatch) {
+        log.debug("|DriverFactory| - |createDriver|: Launch new browser " + browser);
+        DriverBinaryResolver.resolve(browser);
+        ProfileTemplateManager profiles = ProfileTemplateManager.getManager();
+        profiles.prepareTemplate(browser);
+        long start = System.currentTimeMillis();
+        File profile = profiles.cloneProfile(browser);
+        WebDriver driver;
+        DriverService service = null;
+        try {
+            if (browser == BROWSER.FIREFOX) {
+                FirefoxOptions options = new FirefoxOptions();
+                useProfile(options, profile);
+                options.addArguments("--disable-infobars");
+                GeckoDriverService geckoService = GeckoDriverService.createDefaultService();
+                service = geckoService;
+                driver = new FirefoxDriver(geckoService, options);
+            } else if (browser == BROWSER.FIREFOX_HEADLESS) {
+                FirefoxOptions options = new FirefoxOptions();
+                useProfile(options, profile);
+                options.setHeadless(true);
+                options.addArguments("window-size=1920x1080");
+                GeckoDriverService geckoService = GeckoDriverService.createDefaultService();
+                service = geckoService;
+                driver = new FirefoxDriver(geckoService, options);
+            } else if (browser == BROWSER.FIREFOX_HEADLESS_LEAN) {
+                FirefoxOptions options = new FirefoxOptions();
+                useProfile(options, profile);
+                options.setHeadless(true);
+                options.addArguments("window-size=1920x1080");
+                applyOptimizations(options, browser.getOptimizations());
+                GeckoDriverService geckoService = GeckoDriverService.createDefaultService();
+                service = geckoService;
+                driver = new FirefoxDriver(geckoService, options);
+            } else if (browser == BROWSER.CHROME) {
+                ChromeOptions options = new ChromeOptions();
+                useProfile(options, profile);
+                options.setExperimentalOption("useAutomationExtension", false);
+                options.setExperimentalOption("excludeSwitches", Collections.singletonList("enable-automation"));
+                ChromeDriverService chromeService = ChromeDriverService.createDefaultService();
+                service = chromeService;
+                driver = new ChromeDriver(chromeService, options);
+            } else if (browser == BROWSER.CHROME_HEADLESS) {
+                ChromeOptions options = new ChromeOptions();
+                useProfile(options, profile);
+                options.addArguments("headless");
+                options.addArguments("window-size=1920x1080");
+                ChromeDriverService chromeService = ChromeDriverService.createDefaultService();
+                service = chromeService;
+                driver = new ChromeDriver(chromeService, options);
+            } else if (browser == BROWSER.CHROME_HEADLESS_LEAN) {
+                ChromeOptions options = new ChromeOptions();
+                useProfile(options, profile);
+                options.addArguments("headless");
+                options.addArguments("window-size=1920x1080");
+                applyOptimizations(options, browser.getOptimizations());
+                ChromeDriverService chromeService = ChromeDriverService.createDefaultService();
+                service = chromeService;
+                driver = new ChromeDriver(chromeService, options);
+            } else if (browser == BROWSER.EDGE) {
+                EdgeDriverService edgeService = EdgeDriverService.createDefaultService();
+                service = edgeService;
+                driver = new EdgeDriver(edgeService);
+            } else if (browser == BROWSER.HTMLUNIT) {
+                driver = new HtmlUnitDriver(true);
+            } else if (browser == BROWSER.SAFARI) {
+                driver = new SafariDriver();
+            } else {
+                log.error("|DriverFactory| - |createDriver| - Open browser has error");
+                throw new RuntimeException("Please input correct the browser name");
+            }
+        } catch (SessionNotCreatedException e) {
+            profiles.deleteProfile(profile);
+            if (retryOnMismatch && DriverBinaryResolver.refresh(browser)) {
+                log.warn("|DriverFactory| - |createDriver| - Retry " + browser + " with a refreshed driver: " + e.getMessage());
+                return createDriver(browser, false);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            profiles.deleteProfile(profile);
+            throw e;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        SessionReset.recordLaunch(browser, elapsed);
+        if (profiles.hasProfile(browser)) {
+            profiles.recordLaunch(profile != null, elapsed);
+        }
+        profiles.attach(driver, profile);
+        ProcessRegistry.getRegistry().register(driver, browser, service);
+        return driver;
+    }
+
+    /**
+     * To start Chrome from a cloned profile template
+     *
+     * @param options
+     * @param profile: the cloned profile folder, null to let Chrome create a fresh profile
+     */
+    private static void useProfile(ChromeOptions options, File profile) {
+        if (profile != null) {
+            options.addArguments("--user-data-dir=" + profile.getAbsolutePath(), "--no-first-run", "--no-default-browser-check");
+        }
+    }
+
+    /**
+     * To start Firefox from a cloned profile template
+     *
+     * @param options
+     * @param profile: the cloned profile folder, null to let geckodriver create a fresh profile
+     */
+    private static void useProfile(FirefoxOptions options, File profile) {
+        if (profile != null) {
+            options.addArguments("-profile", profile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * To translate start-up optimizations into Chrome switches
+     *
+     * @param options
+     * @param optimizations
+     */
+    private static void applyOptimizations(ChromeOptions options, Set<BrowserOptimization> optimizations) {
+        for (BrowserOptimization optimization : optimizations) {
+            switch (optimization) {
+                case EAGER_PAGE_LOAD:
+                    options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+                    break;
+                case NO_IMAGES:
+                    options.addArguments("--blink-settings=imagesEnabled=false");
+                    break;
+                case NO_WEB_FONTS:
+                    options.addArguments("--disable-remote-fonts");
+                    break;
+                case NO_EXTENSIONS:
+                    options.addArguments("--disable-extensions");
+                    break;
+                case NO_GPU:
+                    options.addArguments("--disable-gpu");
+                    break;
+                case NO_BACKGROUND_NETWORKING:
+                    options.addArguments("--disable-background-networking", "--disable-component-update", "--disable-sync",
+                            "--disable-default-apps", "--no-first-run");
+                    break;
+                case MUTE_AUDIO:
+                    options.addArguments("--mute-audio");
+                    break;
+                default:
+                    log.warn("|DriverFactory| - |applyOptimizations| - Chrome does not support " + optimization);
+            }
+        }
+    }
+
+    /**
+     * To translate start-up optimizations into Firefox preferences
+     *
+     * @param options
+     * @param optimizations
+     */
+    private static void applyOptimizations(FirefoxOptions options, Set<BrowserOptimization> optimizations) {
+        for (BrowserOptimization optimization : optimizations) {
+            switch (optimization) {
+                case EAGER_PAGE_LOAD:
+                    options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+                    break;
+                case NO_IMAGES:
+                    options.addPreference("permissions.default.image", 2);
+                    break;
+                case NO_WEB_FONTS:
+                    options.addPreference("gfx.downloadable_fonts.enabled", false);
+                    break;
+                case NO_GPU:
+                    options.addPreference("layers.acceleration.disabled", true);
+                    break;
+                case NO_BACKGROUND_NETWORKING:
+                    options.addPreference("network.prefetch-next", false);
+                    options.addPreference("network.dns.disablePrefetch", true);
+                    options.addPreference("network.http.speculative-parallel-limit", 0);
+                    options.addPreference("browser.safebrowsing.malware.enabled", false);
+                    options.addPreference("browser.safebrowsing.phishing.enabled", false);
+                    options.addPreference("app.update.enabled", false);
+                    options.addPreference("toolkit.telemetry.enabled", false);
+                    options.addPreference("datareporting.healthreport.uploadEnabled", false);
+                    break;
+                case MUTE_AUDIO:
+                    options.addPreference("media.volume_scale", "0.0");
+                    break;
+                default:
+                    log.warn("|DriverFactory| - |applyOptimizations| - Firefox does not support " + optimization);
+            }
+        }
+    }
+}
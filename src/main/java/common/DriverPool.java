@@ -0,0 +1,247 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps warm browsers between tests. Each worker thread leases a session for the duration of one test and
+ * returns it when the test ends; the session is reset and parked for the next lease instead of being quit.
+ */
+public class DriverPool {
+    private final Log log = LogFactory.getLog(getClass());
+    private final Map<BROWSER, Deque<DriverSession>> idleSessions = new EnumMap<BROWSER, Deque<DriverSession>>(BROWSER.class);
+    private final Map<WebDriver, DriverSession> leasedSessions = new IdentityHashMap<WebDriver, DriverSession>();
+    private final int maxIdleSessions;
+    private final int maxReuse;
+    private int launchCount;
+    private int reuseCount;
+    private int evictionCount;
+
+    public static synchronized DriverPool getPool() {
+        if (pool == null) {
+            pool = new DriverPool(GlobalConstants.DRIVER_POOL_SIZE, GlobalConstants.DRIVER_POOL_MAX_REUSE);
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    pool.shutdown();
+                }
+            }, "driver-pool-shutdown"));
+        }
+        return pool;
+    }
+
+    private DriverPool(int maxIdleSessions, int maxReuse) {
+        this.maxIdleSessions = maxIdleSessions;
+        this.maxReuse = maxReuse;
+    }
+
+    /**
+     * To check the pool keeps browsers between tests
+     *
+     * @return false if every released browser is quit immediately
+     */
+    public boolean isEnabled() {
+        return maxIdleSessions > 0;
+    }
+
+    /**
+     * To lease a healthy browser to the current thread, launching a new one when no warm browser is parked. With the
+     * pool switched off, a browser of the same type is prefetched for the next test, since this one will be quit
+     * instead of parked; with the pool on, tests ask for the upcoming browser through prefetchBrowserDriver
+     *
+     * @param browser: the type of browser that will be leased
+     * @return the driver owned by the current thread until it is released
+     */
+    public WebDriver lease(BROWSER browser) {
+        DriverSession session;
+        while ((session = pollIdle(browser)) != null) {
+            if (isHealthy(session)) {
+                synchronized (this) {
+                    reuseCount++;
+                    session.markLeased();
+                    leasedSessions.put(session.getDriver(), session);
+                }
+                log.debug("|DriverPool| - |lease|: Reuse warm browser " + session);
+                return session.getDriver();
+            }
+            evict(session, "failed health check");
+        }
+
+        WebDriver driver = DriverPrefetcher.getPrefetcher().take(browser);
+        if (driver == null) {
+            driver = DriverFactory.createDriver(browser);
+        }
+        session = new DriverSession(driver, browser);
+        synchronized (this) {
+            launchCount++;
+            session.markLeased();
+            leasedSessions.put(session.getDriver(), session);
+        }
+        log.debug("|DriverPool| - |lease|: Launch new browser " + session);
+        if (!isEnabled()) {
+            DriverPrefetcher.getPrefetcher().prefetch(browser);
+        }
+        return session.getDriver();
+    }
+
+    /**
+     * To give a leased browser back to the pool. The browser is reset and parked, or quit when it reached the max
+     * reuse, failed the reset checksum or the pool is already full
+     *
+     * @param driver: the driver returned by {@link #lease(BROWSER)}
+     */
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        DriverSession session;
+        synchronized (this) {
+            session = leasedSessions.remove(driver);
+        }
+        if (session == null) {
+            log.debug("|DriverPool| - |release|: Driver was not leased from the pool, quit it");
+            TeardownExecutor.getExecutor().submit(driver);
+            return;
+        }
+        if (!isEnabled()) {
+            evict(session, "pool is disabled");
+            return;
+        }
+        if (session.getLeaseCount() >= maxReuse) {
+            evict(session, "reached max reuse " + maxReuse);
+            return;
+        }
+        if (!resetSession(session)) {
+            evict(session, "reset was not verified");
+            return;
+        }
+        synchronized (this) {
+            if (countIdleSessions() < maxIdleSessions) {
+                getIdleQueue(session.getBrowser()).push(session);
+                return;
+            }
+        }
+        evict(session, "pool is full");
+    }
+
+    /**
+     * To get the browser type of a leased driver
+     *
+     * @param driver
+     * @return the browser type, null if the driver was not leased from the pool
+     */
+    public synchronized BROWSER getBrowser(WebDriver driver) {
+        DriverSession session = leasedSessions.get(driver);
+        return session == null ? null : session.getBrowser();
+    }
+
+    /**
+     * To quit every browser the pool still holds
+     */
+    public void shutdown() {
+        List<DriverSession> sessions = new ArrayList<DriverSession>();
+        synchronized (this) {
+            for (Deque<DriverSession> queue : idleSessions.values()) {
+                sessions.addAll(queue);
+                queue.clear();
+            }
+            sessions.addAll(leasedSessions.values());
+            leasedSessions.clear();
+        }
+        for (DriverSession session : sessions) {
+            ProcessReaper.getReaper().quitNow(session.getDriver());
+        }
+        DriverPrefetcher.getPrefetcher().shutdown();
+        TeardownExecutor.getExecutor().awaitTermination(GlobalConstants.TEARDOWN_DEADLINE_MILLIS);
+        log.info("|DriverPool| - |shutdown|: " + getStatistics());
+        log.info("|DriverPool| - |shutdown|: Reset vs relaunch " + SessionReset.getStatistics());
+        if (DriverPrefetcher.getPrefetcher().isEnabled()) {
+            log.info("|DriverPool| - |shutdown|: Prefetch " + DriverPrefetcher.getPrefetcher().getStatistics());
+        }
+        log.info("|DriverPool| - |shutdown|: Teardown " + TeardownExecutor.getExecutor().getStatistics());
+        log.info("|DriverPool| - |shutdown|: Processes " + ProcessReaper.getReaper().getStatistics());
+        log.info("|DriverPool| - |shutdown|: Locators " + LocatorCache.getCache().getStatistics());
+        log.info("|DriverPool| - |shutdown|: Text extraction " + BulkTextExtractor.getStatistics());
+        log.info("|DriverPool| - |shutdown|: Text entry " + TextEntry.getStatistics());
+        log.info("|DriverPool| - |shutdown|: Scripts " + ScriptRegistry.getRegistry().getStatistics());
+        log.info("|DriverPool| - |shutdown|: Waits " + WaitEngine.getEngine().getStatistics());
+        log.info("|DriverPool| - |shutdown|: Idle page waits " + QuiescenceDetector.getDetector().getStatistics());
+        if (EventDrivenWait.getWait().isEnabled()) {
+            log.info("|DriverPool| - |shutdown|: Event waits " + EventDrivenWait.getWait().getStatistics());
+        }
+        if (ElementCache.getCache().isEnabled()) {
+            log.info("|DriverPool| - |shutdown|: Element cache " + ElementCache.getCache().getStatistics());
+        }
+        if (ProfileTemplateManager.getManager().hasLaunches()) {
+            log.info("|DriverPool| - |shutdown|: Profile templates " + ProfileTemplateManager.getManager().getStatistics());
+        }
+        if (GlobalConstants.PROFILE_TEMPLATE) {
+            ProfileTemplateManager.getManager().cleanup();
+        }
+    }
+
+    /**
+     * To get launch, reuse and eviction counters of the pool
+     *
+     * @return a readable summary of the counters
+     */
+    public synchronized String getStatistics() {
+        return "launched: " + launchCount + ", reused: " + reuseCount + ", evicted: " + evictionCount
+                + ", idle: " + countIdleSessions() + ", leased: " + leasedSessions.size();
+    }
+
+    private synchronized DriverSession pollIdle(BROWSER browser) {
+        Deque<DriverSession> queue = idleSessions.get(browser);
+        return queue == null ? null : queue.poll();
+    }
+
+    private Deque<DriverSession> getIdleQueue(BROWSER browser) {
+        Deque<DriverSession> queue = idleSessions.get(browser);
+        if (queue == null) {
+            queue = new ArrayDeque<DriverSession>();
+            idleSessions.put(browser, queue);
+        }
+        return queue;
+    }
+
+    private int countIdleSessions() {
+        int count = 0;
+        for (Deque<DriverSession> queue : idleSessions.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    private boolean isHealthy(DriverSession session) {
+        try {
+            session.getDriver().getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            log.warn("|DriverPool| - |isHealthy| - Browser " + session + " is not responding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean resetSession(DriverSession session) {
+        return SessionReset.reset(session.getDriver(), session.getBrowser());
+    }
+
+    private void evict(DriverSession session, String reason) {
+        synchronized (this) {
+            evictionCount++;
+        }
+        log.debug("|DriverPool| - |evict|: Quit browser " + session + " because " + reason);
+        TeardownExecutor.getExecutor().submit(session.getDriver());
+    }
+
+    private static DriverPool pool;
+}
@@ -0,0 +1,229 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in speculative launch of the next browser while the current test runs. The number of browsers launched
+ * ahead is capped by a memory budget, and every lease is counted as a hit (a prefetched browser was used) or a
+ * miss (the test had to wait for a fresh launch).
+ */
+public class DriverPrefetcher {
+    private final Log log = LogFactory.getLog(getClass());
+    private final Map<BROWSER, Deque<Launch>> prefetched = new EnumMap<BROWSER, Deque<Launch>>(BROWSER.class);
+    private final ExecutorService launcher;
+    private final int maxSessions;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger wasted = new AtomicInteger();
+
+    public static synchronized DriverPrefetcher getPrefetcher() {
+        if (prefetcher == null) {
+            int maxSessions = GlobalConstants.DRIVER_PREFETCH_SESSION_MEMORY_MB <= 0 ? 0
+                    : (int) (GlobalConstants.DRIVER_PREFETCH_MAX_MEMORY_MB / GlobalConstants.DRIVER_PREFETCH_SESSION_MEMORY_MB);
+            prefetcher = new DriverPrefetcher(GlobalConstants.DRIVER_PREFETCH ? maxSessions : 0);
+        }
+        return prefetcher;
+    }
+
+    private DriverPrefetcher(int maxSessions) {
+        this.maxSessions = maxSessions;
+        launcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "browser-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * To check speculative launch is switched on and has memory budget for at least one browser
+     *
+     * @return true if browsers are launched ahead
+     */
+    public boolean isEnabled() {
+        return maxSessions > 0;
+    }
+
+    /**
+     * To launch a browser in the background for an upcoming test. Nothing is launched when the memory budget is
+     * already used by other prefetched browsers
+     *
+     * @param browser: the type of browser the upcoming test will open
+     */
+    public void prefetch(BROWSER browser) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            if (countPrefetched() >= maxSessions) {
+                skipped.incrementAndGet();
+                return;
+            }
+            Launch launch = new Launch(browser);
+            launch.future = launcher.submit(launch);
+            getQueue(browser).add(launch);
+        }
+        log.debug("|DriverPrefetcher| - |prefetch|: Launch " + browser + " ahead of the next test");
+    }
+
+    /**
+     * To take a prefetched browser, waiting for it if its launch is still running
+     *
+     * @param browser: the type of browser the test needs
+     * @return the prefetched driver, null on a miss
+     */
+    public WebDriver take(BROWSER browser) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Launch launch;
+        synchronized (this) {
+            launch = getQueue(browser).poll();
+        }
+        if (launch != null) {
+            try {
+                WebDriver driver = launch.future.get(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS);
+                hits.incrementAndGet();
+                return driver;
+            } catch (Exception e) {
+                log.warn("|DriverPrefetcher| - |take| - Prefetched " + browser + " cannot be used: " + e.getMessage());
+                WebDriver driver = launch.abandon();
+                if (driver != null) {
+                    wasted.incrementAndGet();
+                    TeardownExecutor.getExecutor().submit(driver);
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * To quit every prefetched browser that no test took, including the ones whose launch is still running
+     */
+    public void shutdown() {
+        List<Launch> launches = new ArrayList<Launch>();
+        synchronized (this) {
+            for (Deque<Launch> queue : prefetched.values()) {
+                launches.addAll(queue);
+                queue.clear();
+            }
+        }
+        for (Launch launch : launches) {
+            try {
+                ProcessReaper.getReaper().quitNow(launch.future.get(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS));
+                wasted.incrementAndGet();
+            } catch (Exception e) {
+                log.error("|DriverPrefetcher| - |shutdown| - Cannot quit prefetched browser: " + e.getMessage());
+                WebDriver driver = launch.abandon();
+                if (driver != null) {
+                    wasted.incrementAndGet();
+                    ProcessReaper.getReaper().quitNow(driver);
+                }
+            }
+        }
+        launcher.shutdownNow();
+        try {
+            if (!launcher.awaitTermination(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS)) {
+                log.warn("|DriverPrefetcher| - |shutdown| - Prefetched browsers are still launching after " + GlobalConstants.LONG_TIMEOUT + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * To get hit and miss counters of speculative launch
+     *
+     * @return a readable summary of the counters
+     */
+    public String getStatistics() {
+        int total = hits.get() + misses.get();
+        return "hits: " + hits.get() + ", misses: " + misses.get()
+                + ", hit rate: " + (total == 0 ? 0 : hits.get() * 100 / total) + "%"
+                + ", skipped by memory cap: " + skipped.get() + ", unused: " + wasted.get();
+    }
+
+    private Deque<Launch> getQueue(BROWSER browser) {
+        Deque<Launch> queue = prefetched.get(browser);
+        if (queue == null) {
+            queue = new ArrayDeque<Launch>();
+            prefetched.put(browser, queue);
+        }
+        return queue;
+    }
+
+    private int countPrefetched() {
+        int count = 0;
+        for (Deque<Launch> queue : prefetched.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * A background launch that either hands its browser to the test that takes it or, once abandoned, quits it
+     */
+    private class Launch implements Callable<WebDriver> {
+        private final BROWSER browser;
+        private Future<WebDriver> future;
+        private WebDriver driver;
+        private boolean abandoned;
+
+        private Launch(BROWSER browser) {
+            this.browser = browser;
+        }
+
+        @Override
+        public WebDriver call() {
+            WebDriver launched = DriverFactory.createDriver(browser);
+            synchronized (this) {
+                if (!abandoned) {
+                    driver = launched;
+                    return launched;
+                }
+            }
+            log.warn("|DriverPrefetcher| - |call| - Quit " + browser + " that finished launching after it was given up");
+            wasted.incrementAndGet();
+            ProcessReaper.getReaper().quitNow(launched);
+            return null;
+        }
+
+        /**
+         * To give up the launch after a timeout or a failure. A launch that is still queued is cancelled, one that is
+         * still running quits its browser when it finishes
+         *
+         * @return the browser if the launch finished in the meantime, for the caller to quit, else null
+         */
+        private WebDriver abandon() {
+            future.cancel(true);
+            synchronized (this) {
+                abandoned = true;
+                WebDriver launched = driver;
+                driver = null;
+                return launched;
+            }
+        }
+    }
+
+    private static DriverPrefetcher prefetcher;
+}
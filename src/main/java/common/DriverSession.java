@@ -0,0 +1,46 @@
+package common;
+
+import org.openqa.selenium.WebDriver;
+
+public class DriverSession {
+    private final WebDriver driver;
+    private final BROWSER browser;
+    private final long createdTime;
+    private int leaseCount;
+
+    public DriverSession(WebDriver driver, BROWSER browser) {
+        this.driver = driver;
+        this.browser = browser;
+        this.createdTime = System.currentTimeMillis();
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public BROWSER getBrowser() {
+        return browser;
+    }
+
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    /**
+     * To get how many tests have leased this browser so far
+     *
+     * @return the number of leases
+     */
+    public int getLeaseCount() {
+        return leaseCount;
+    }
+
+    void markLeased() {
+        leaseCount++;
+    }
+
+    @Override
+    public String toString() {
+        return browser + "@" + Integer.toHexString(System.identityHashCode(driver)) + " (leases: " + leaseCount + ")";
+    }
+}
@@ -0,0 +1,233 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in cache of element handles for the page that is open on the current thread, keyed by resolved locator.
+ * A cached handle is reused until a navigation helper invalidates the cache; when the page replaced the element
+ * in the meantime, the handle re-resolves its locator on the {@link StaleElementReferenceException} and retries
+ * the call once, so callers never see the stale reference.
+ * <p>
+ * Every reused handle is one findElement round trip saved; the count of the running test is stored on its
+ * {@link ITestResult} under {@link #SAVED_ROUND_TRIPS}.
+ */
+public class ElementCache {
+    public static final String SAVED_ROUND_TRIPS = "elementCache.savedRoundTrips";
+    private final Log log = LogFactory.getLog(getClass());
+    private final ThreadLocal<PageElements> pages = new ThreadLocal<PageElements>() {
+        @Override
+        protected PageElements initialValue() {
+            return new PageElements();
+        }
+    };
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reResolved = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public static synchronized ElementCache getCache() {
+        if (cache == null) {
+            cache = new ElementCache();
+        }
+        return cache;
+    }
+
+    private ElementCache() {
+    }
+
+    /**
+     * To check page helpers reuse element handles
+     *
+     * @return true if the cache is switched on
+     */
+    public boolean isEnabled() {
+        return GlobalConstants.ELEMENT_CACHE;
+    }
+
+    /**
+     * To find an element, reusing the handle of an earlier lookup on the same page
+     *
+     * @param driver
+     * @param by:    the resolved locator of the element
+     * @return the cached handle of the first matching element
+     * @throws org.openqa.selenium.NoSuchElementException if no element matches the locator
+     */
+    public WebElement find(WebDriver driver, By by) {
+        PageElements page = getPage(driver);
+        WebElement element = page.elements.get(by);
+        if (element != null) {
+            hits.incrementAndGet();
+            page.countSavedRoundTrip();
+            return element;
+        }
+        misses.incrementAndGet();
+        element = wrap(driver, by, driver.findElement(by));
+        page.elements.put(by, element);
+        return element;
+    }
+
+    /**
+     * To keep an element that was already found, e.g. by an explicit wait, for the next lookups of its locator
+     *
+     * @param driver
+     * @param by:      the resolved locator of the element
+     * @param element: the element the locator matched
+     */
+    public void put(WebDriver driver, By by, WebElement element) {
+        if (element != null && isEnabled()) {
+            getPage(driver).elements.put(by, element instanceof CachedElement ? element : wrap(driver, by, element));
+        }
+    }
+
+    /**
+     * To forget every cached handle of the current thread, e.g. after the page navigated or the window or frame
+     * was switched
+     *
+     * @param driver
+     */
+    public void invalidate(WebDriver driver) {
+        PageElements page = pages.get();
+        if (page.driver == driver && !page.elements.isEmpty()) {
+            invalidations.incrementAndGet();
+            page.elements.clear();
+        }
+    }
+
+    /**
+     * To get how many driver round trips the cache saved for the running test
+     *
+     * @return the number of reused handles since the test started
+     */
+    public long getSavedRoundTrips() {
+        PageElements page = pages.get();
+        return page.test == Reporter.getCurrentTestResult() ? page.savedRoundTrips : 0;
+    }
+
+    /**
+     * To get hit and miss counters of the element cache
+     *
+     * @return a readable summary of the counters
+     */
+    public String getStatistics() {
+        long total = hits.get() + misses.get();
+        return "round trips saved: " + hits.get() + ", lookups: " + misses.get()
+                + ", hit rate: " + (total == 0 ? 0 : hits.get() * 100 / total) + "%"
+                + ", re-resolved stale handles: " + reResolved.get() + ", invalidations: " + invalidations.get();
+    }
+
+    private PageElements getPage(WebDriver driver) {
+        PageElements page = pages.get();
+        if (page.driver != driver) {
+            page.driver = driver;
+            page.elements.clear();
+        }
+        return page;
+    }
+
+    private WebElement wrap(WebDriver driver, By by, WebElement element) {
+        Class<?>[] interfaces = element instanceof Locatable
+                ? new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class, CachedElement.class}
+                : new Class<?>[]{WebElement.class, WrapsElement.class, CachedElement.class};
+        return (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, new CachedElementHandler(driver, by, element));
+    }
+
+    /**
+     * Marks the handles created by this cache
+     */
+    private interface CachedElement {
+    }
+
+    /**
+     * Element handles of the page that is open on one thread
+     */
+    private class PageElements {
+        private final Map<By, WebElement> elements = new HashMap<By, WebElement>();
+        private WebDriver driver;
+        private ITestResult test;
+        private long savedRoundTrips;
+
+        private void countSavedRoundTrip() {
+            ITestResult current = Reporter.getCurrentTestResult();
+            if (current != test) {
+                if (test != null && savedRoundTrips > 0) {
+                    log.debug("|ElementCache| - |countSavedRoundTrip|: " + test.getName() + " saved " + savedRoundTrips + " round trips");
+                }
+                test = current;
+                savedRoundTrips = 0;
+            }
+            savedRoundTrips++;
+            if (current != null) {
+                current.setAttribute(SAVED_ROUND_TRIPS, savedRoundTrips);
+            }
+        }
+    }
+
+    /**
+     * Forwards every call to the current element of a locator and re-resolves the locator once when the element
+     * went stale
+     */
+    private class CachedElementHandler implements InvocationHandler {
+        private final WebDriver driver;
+        private final By by;
+        private volatile WebElement element;
+
+        private CachedElementHandler(WebDriver driver, By by, WebElement element) {
+            this.driver = driver;
+            this.by = by;
+            this.element = element;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                if ("equals".equals(name)) {
+                    Object other = args[0] instanceof WrapsElement ? ((WrapsElement) args[0]).getWrappedElement() : args[0];
+                    return proxy == args[0] || element.equals(other);
+                }
+                if ("hashCode".equals(name)) {
+                    return element.hashCode();
+                }
+                if ("toString".equals(name)) {
+                    return "Cached " + by + " -> " + element;
+                }
+            }
+            if ("getWrappedElement".equals(name) && method.getDeclaringClass() == WrapsElement.class) {
+                return element;
+            }
+            try {
+                return method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof StaleElementReferenceException)) {
+                    throw e.getCause();
+                }
+            }
+            reResolved.incrementAndGet();
+            element = driver.findElement(by);
+            try {
+                return method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static ElementCache cache;
+}
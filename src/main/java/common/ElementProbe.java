@@ -0,0 +1,117 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Answers "is this element present and displayed?" with a single DOM query instead of findElements, so an absent
+ * element is reported immediately rather than after the implicit wait. The session timeouts are never changed.
+ * <p>
+ * An optional grace window polls the probe until the expected state is reached or the window ends, for elements
+ * that are about to appear or disappear. Displayed follows the same rules as {@link BulkTextExtractor}; drivers
+ * without a layout engine ask the element itself through WebElement isDisplayed.
+ */
+public class ElementProbe {
+    static final String VISIBILITY_FUNCTIONS = "var hasSize = function (element, depth) {"
+            + "  var rect = element.getBoundingClientRect();"
+            + "  if (rect.width > 0 && rect.height > 0) { return true; }"
+            + "  if (depth > 8) { return false; }"
+            + "  for (var child = element.firstElementChild; child; child = child.nextElementSibling) { if (hasSize(child, depth + 1)) { return true; } }"
+            + "  return false;"
+            + "};"
+            + "var isShown = function (element) {"
+            + "  var style = window.getComputedStyle(element);"
+            + "  if (style.visibility === 'hidden' || style.visibility === 'collapse') { return false; }"
+            + "  for (var current = element; current && current.nodeType === 1; current = current.parentElement) {"
+            + "    var currentStyle = current === element ? style : window.getComputedStyle(current);"
+            + "    if (currentStyle.display === 'none' || parseFloat(currentStyle.opacity) === 0) { return false; }"
+            + "  }"
+            + "  return hasSize(element, 0);"
+            + "};";
+    private static final String FIND_FIRST = "var element = document.evaluate(arguments[0], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;";
+    private static final String PROBE_STATE = VISIBILITY_FUNCTIONS + FIND_FIRST
+            + "if (!element) { return 'ABSENT'; }"
+            + "if (element.nodeType !== 1) { return 'DISPLAYED'; }"
+            + "return isShown(element) ? 'DISPLAYED' : 'HIDDEN';";
+    private static final String PROBE_ELEMENT = FIND_FIRST + "return element && element.nodeType === 1 ? element : null;";
+    private static final long POLLING_MILLIS = 100;
+    private static final Log log = LogFactory.getLog(ElementProbe.class);
+
+    public enum State {
+        ABSENT, HIDDEN, DISPLAYED
+    }
+
+    private ElementProbe() {
+    }
+
+    /**
+     * To get the state of the first element matching an xpath, without waiting
+     *
+     * @param driver
+     * @param xpath: the resolved xpath expression of the element
+     * @return ABSENT, HIDDEN or DISPLAYED
+     */
+    public static State probe(WebDriver driver, String xpath) {
+        if (!DriverCompatibility.supports(driver, DriverCompatibility.Feature.JAVASCRIPT)) {
+            List<WebElement> elements = driver.findElements(LocatorCache.getCache().getByXpath(xpath));
+            return elements.isEmpty() ? State.ABSENT : elements.get(0).isDisplayed() ? State.DISPLAYED : State.HIDDEN;
+        }
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        if (!DriverCompatibility.supports(driver, DriverCompatibility.Feature.LAYOUT)) {
+            Object element = jsExecutor.executeScript(PROBE_ELEMENT, xpath);
+            if (!(element instanceof WebElement)) {
+                return State.ABSENT;
+            }
+            return ((WebElement) element).isDisplayed() ? State.DISPLAYED : State.HIDDEN;
+        }
+        return State.valueOf(String.valueOf(jsExecutor.executeScript(PROBE_STATE, xpath)));
+    }
+
+    /**
+     * To check the first element matching an xpath is displayed, waiting at most the grace window for it
+     *
+     * @param driver
+     * @param xpath:       the resolved xpath expression of the element
+     * @param graceMillis: how long the element may take to appear, 0 to answer immediately
+     * @return true if the element is displayed
+     */
+    public static boolean isDisplayed(WebDriver driver, String xpath, long graceMillis) {
+        return awaitState(driver, xpath, graceMillis, true) == State.DISPLAYED;
+    }
+
+    /**
+     * To check no element matching an xpath is displayed, i.e. it is absent or hidden, waiting at most the grace
+     * window for it to go away
+     *
+     * @param driver
+     * @param xpath:       the resolved xpath expression of the element
+     * @param graceMillis: how long the element may take to disappear, 0 to answer immediately
+     * @return true if the element is absent or hidden
+     */
+    public static boolean isUndisplayed(WebDriver driver, String xpath, long graceMillis) {
+        return awaitState(driver, xpath, graceMillis, false) != State.DISPLAYED;
+    }
+
+    private static State awaitState(WebDriver driver, String xpath, long graceMillis, boolean displayed) {
+        long deadline = System.currentTimeMillis() + Math.max(0, graceMillis);
+        while (true) {
+            State state = probe(driver, xpath);
+            long remaining = deadline - System.currentTimeMillis();
+            if ((state == State.DISPLAYED) == displayed || remaining <= 0) {
+                return state;
+            }
+            try {
+                Thread.sleep(Math.min(POLLING_MILLIS, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.debug("|ElementProbe| - |awaitState|: Interrupted while waiting for " + xpath);
+                return state;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waits for an element state without polling the driver. In {@link Mode#EVENT} one executeAsyncScript call
+ * checks the state in the page and, when it is not reached yet, sleeps on a MutationObserver of the document, an
+ * IntersectionObserver of the element and transition and animation end events, so the wait returns as soon as the
+ * page changes into the expected state. A 250 ms check in the page catches changes that fire no event.
+ * <p>
+ * The page side is cut into slices of {@link #SLICE_MILLIS} to stay well below the script timeout of the session;
+ * most waits still take one round trip. Without a MutationObserver, on drivers without a layout engine, or after
+ * repeated script errors, e.g. a navigation during the wait, the rest of the wait polls through {@link WaitEngine}.
+ */
+public class EventDrivenWait {
+    private static final long SLICE_MILLIS = 10000;
+    private static final int MAX_SCRIPT_ERRORS = 2;
+    private static final String AWAIT_STATE = "var xpath = arguments[0], target = arguments[1], timeout = arguments[2], done = arguments[arguments.length - 1];"
+            + ElementProbe.VISIBILITY_FUNCTIONS
+            + "var find = function () { return document.evaluate(xpath, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; };"
+            + "var check = function () {"
+            + "  var element = find();"
+            + "  if (target === 'INVISIBLE') { return !element || (element.nodeType === 1 && !isShown(element)) ? true : null; }"
+            + "  if (!element || element.nodeType !== 1) { return null; }"
+            + "  if (target === 'PRESENT') { return element; }"
+            + "  if (!isShown(element) || (target === 'CLICKABLE' && element.disabled)) { return null; }"
+            + "  return element;"
+            + "};"
+            + "var reached = check();"
+            + "if (reached) { done(reached); return; }"
+            + "if (typeof MutationObserver === 'undefined') { done('UNSUPPORTED'); return; }"
+            + "var finished = false, observed = null, intersection = null, mutation, timer, safety;"
+            + "var finish = function (value) {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  mutation.disconnect();"
+            + "  if (intersection) { intersection.disconnect(); }"
+            + "  document.removeEventListener('transitionend', wake, true);"
+            + "  document.removeEventListener('animationend', wake, true);"
+            + "  clearTimeout(timer);"
+            + "  clearInterval(safety);"
+            + "  done(value);"
+            + "};"
+            + "var wake = function () {"
+            + "  if (finished) { return; }"
+            + "  var value = check();"
+            + "  if (value) { finish(value); return; }"
+            + "  var element = intersection ? find() : null;"
+            + "  if (element && element.nodeType === 1 && element !== observed) {"
+            + "    if (observed) { intersection.unobserve(observed); }"
+            + "    observed = element;"
+            + "    intersection.observe(element);"
+            + "  }"
+            + "};"
+            + "mutation = new MutationObserver(wake);"
+            + "mutation.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "if (typeof IntersectionObserver !== 'undefined') { intersection = new IntersectionObserver(wake); }"
+            + "document.addEventListener('transitionend', wake, true);"
+            + "document.addEventListener('animationend', wake, true);"
+            + "timer = setTimeout(function () { finish('TIMEOUT'); }, timeout);"
+            + "safety = setInterval(wake, 250);"
+            + "wake();";
+    private final Log log = LogFactory.getLog(getClass());
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public enum Mode {
+        POLLING, EVENT
+    }
+
+    /**
+     * The element states an event-driven wait can wait for
+     */
+    public enum Target {
+        PRESENT, VISIBLE, CLICKABLE, INVISIBLE
+    }
+
+    public static synchronized EventDrivenWait getWait() {
+        if (eventDrivenWait == null) {
+            eventDrivenWait = new EventDrivenWait();
+        }
+        return eventDrivenWait;
+    }
+
+    private EventDrivenWait() {
+    }
+
+    /**
+     * To check the wait helpers wait on page events, set for the run with -Dwait.mode
+     *
+     * @return true in EVENT mode, false when they poll through {@link WaitEngine}
+     */
+    public boolean isEnabled() {
+        return GlobalConstants.WAIT_MODE == Mode.EVENT;
+    }
+
+    /**
+     * To wait till the first element matching an xpath reaches a state, on page events in EVENT mode and by
+     * polling otherwise
+     *
+     * @param driver
+     * @param name:          the name the duration is recorded under, e.g. the calling helper
+     * @param xpath:         the resolved xpath expression of the element
+     * @param target:        the state to wait for
+     * @param timeoutMillis: the deadline of this call
+     * @return the element, or null when waiting for INVISIBLE
+     * @throws TimeoutException if the state is not reached at the deadline
+     */
+    public WebElement until(WebDriver driver, String name, String xpath, Target target, long timeoutMillis) {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1000000L;
+        if (isEnabled() && DriverCompatibility.supports(driver, DriverCompatibility.Feature.JAVASCRIPT)
+                && DriverCompatibility.supports(driver, DriverCompatibility.Feature.LAYOUT)) {
+            waits.incrementAndGet();
+            int scriptErrors = 0;
+            while (scriptErrors < MAX_SCRIPT_ERRORS) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1000000L;
+                if (remainingMillis <= 0) {
+                    WaitEngine.getEngine().record(name, start, true);
+                    throw new TimeoutException("Element " + xpath + " is not " + target.name().toLowerCase() + " after " + timeoutMillis + " ms");
+                }
+                Object result;
+                try {
+                    roundTrips.incrementAndGet();
+                    result = ((JavascriptExecutor) driver).executeAsyncScript(AWAIT_STATE, xpath, target.name(), Math.min(remainingMillis, SLICE_MILLIS));
+                } catch (ScriptTimeoutException e) {
+                    continue;
+                } catch (WebDriverException e) {
+                    scriptErrors++;
+                    log.debug("|EventDrivenWait| - |until|: Event wait for " + xpath + " was interrupted: " + e.getMessage());
+                    continue;
+                }
+                if (result instanceof WebElement) {
+                    WaitEngine.getEngine().record(name, start, false);
+                    return (WebElement) result;
+                }
+                if (Boolean.TRUE.equals(result)) {
+                    WaitEngine.getEngine().record(name, start, false);
+                    return null;
+                }
+                if ("UNSUPPORTED".equals(result)) {
+                    break;
+                }
+            }
+            fallbacks.incrementAndGet();
+            log.debug("|EventDrivenWait| - |until|: Poll for " + xpath + " instead of waiting on page events");
+        }
+        WaitEngine waitEngine = WaitEngine.getEngine();
+        long remainingMillis = Math.max(0, (deadline - System.nanoTime()) / 1000000L);
+        if (target == Target.INVISIBLE) {
+            waitEngine.until(driver, name, waitEngine.invisibilityOf(xpath), remainingMillis);
+            return null;
+        }
+        return waitEngine.until(driver, name, toCondition(xpath, target), remainingMillis);
+    }
+
+    /**
+     * To get how many round trips the event-driven waits took
+     *
+     * @return a readable summary of the counters
+     */
+    public String getStatistics() {
+        return "event waits: " + waits.get() + ", round trips: " + roundTrips.get() + ", fallbacks to polling: " + fallbacks.get();
+    }
+
+    private ExpectedCondition<WebElement> toCondition(String xpath, Target target) {
+        By by = LocatorCache.getCache().getByXpath(xpath);
+        switch (target) {
+            case PRESENT:
+                return WaitEngine.getEngine().presenceOf(by);
+            case CLICKABLE:
+                return WaitEngine.getEngine().clickabilityOf(by);
+            default:
+                return WaitEngine.getEngine().visibilityOf(by);
+        }
+    }
+
+    private static EventDrivenWait eventDrivenWait;
+}
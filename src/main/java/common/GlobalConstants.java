@@ -8,5 +8,41 @@ public class GlobalConstants {
 	public static final long LONG_TIMEOUT = 30;
 	public static String ROOT_FOLDER = System.getProperty("user.dir");
 	public static final String FILE_PATH_THEME_LIST_DETAILS = "/src/test/ResponseRequest/GET//ThemeListDetails.json";
+	public static final int DRIVER_POOL_SIZE = Integer.getInteger("driver.pool.size", 4);
+	public static final int DRIVER_POOL_MAX_REUSE = Integer.getInteger("driver.pool.max.reuse", 25);
+	public static final String CACHE_FOLDER = System.getProperty("automation.cache.dir", System.getProperty("user.home") + "/.cache/automation-diaries");
+	public static final String DRIVER_MANIFEST_PATH = System.getProperty("driver.manifest", CACHE_FOLDER + "/drivers.properties");
+	public static final boolean DRIVER_OFFLINE = Boolean.getBoolean("driver.offline");
+	public static final boolean DRIVER_MANIFEST_REFRESH = Boolean.getBoolean("driver.manifest.refresh");
+	public static final long PROCESS_REAP_GRACE_MILLIS = Long.getLong("process.reap.grace.millis", 2000);
+	public static final long PROCESS_KILL_TIMEOUT_MILLIS = Long.getLong("process.kill.timeout.millis", 5000);
+	public static final long PROCESS_COMMAND_TIMEOUT_MILLIS = Long.getLong("process.command.timeout.millis", 3000);
+	public static final int TEARDOWN_THREADS = Integer.getInteger("teardown.threads", 2);
+	public static final long TEARDOWN_DEADLINE_MILLIS = Long.getLong("teardown.deadline.millis", 30000);
+	public static final boolean DRIVER_PREFETCH = Boolean.getBoolean("driver.prefetch");
+	public static final long DRIVER_PREFETCH_MAX_MEMORY_MB = Long.getLong("driver.prefetch.max.memory.mb", 1024);
+	public static final long DRIVER_PREFETCH_SESSION_MEMORY_MB = Long.getLong("driver.prefetch.session.memory.mb", 350);
+	public static final boolean PROFILE_TEMPLATE = Boolean.getBoolean("profile.template");
+	public static final String PROFILE_FOLDER = System.getProperty("profile.dir", CACHE_FOLDER + "/profiles");
+	public static final int LOCATOR_CACHE_SIZE = Integer.getInteger("locator.cache.size", 2048);
+	public static final boolean ELEMENT_CACHE = Boolean.getBoolean("element.cache");
+	public static final BulkTextExtractor.Mode TEXT_EXTRACTION_MODE = BulkTextExtractor.Mode.valueOf(System.getProperty("text.extraction.mode", "BULK").toUpperCase());
+	public static final long PROBE_GRACE_MILLIS = Long.getLong("probe.grace.millis", 0);
+	public static final long PROBE_DISPLAYED_GRACE_MILLIS = Long.getLong("probe.displayed.grace.millis", SHORT_TIMEOUT * 1000);
+	public static final long WAIT_POLL_INITIAL_MILLIS = Long.getLong("wait.poll.initial.millis", 50);
+	public static final long WAIT_POLL_MAX_MILLIS = Long.getLong("wait.poll.max.millis", 500);
+	public static final EventDrivenWait.Mode WAIT_MODE = EventDrivenWait.Mode.valueOf(System.getProperty("wait.mode", "POLLING").toUpperCase());
+	public static final long QUIESCENCE_TIMEOUT_MILLIS = Long.getLong("quiescence.timeout.millis", 10000);
+	public static final long QUIESCENCE_QUIET_MILLIS = Long.getLong("quiescence.quiet.millis", 50);
+	public static final long HIGHLIGHT_MILLIS = Long.getLong("highlight.millis", 1000);
+	public static final long SLEEP_BUDGET_TEST_MILLIS = Long.getLong("sleep.budget.test.millis", 0);
+	public static final long SLEEP_BUDGET_SUITE_MILLIS = Long.getLong("sleep.budget.suite.millis", 0);
+	public static final SleepAudit.BudgetMode SLEEP_BUDGET_MODE = SleepAudit.BudgetMode.valueOf(System.getProperty("sleep.budget.mode", "WARN").toUpperCase());
+	public static final int SLEEP_REPORT_SIZE = Integer.getInteger("sleep.report.size", 10);
+	public static final TextEntry.Mode TEXT_ENTRY_MODE = TextEntry.Mode.valueOf(System.getProperty("text.entry.mode", "AUTO").toUpperCase());
+	public static final int TEXT_ENTRY_PASTE_THRESHOLD = Integer.getInteger("text.entry.paste.threshold", 64);
+	public static final boolean SCRIPT_REGISTRY = !"false".equalsIgnoreCase(System.getProperty("script.registry"));
+	public static final boolean COMMAND_METERING = !"false".equalsIgnoreCase(System.getProperty("command.metering"));
+	public static final String PROFILE_WARMUP_URL = System.getProperty("profile.warmup.url", "about:blank");
 
 }
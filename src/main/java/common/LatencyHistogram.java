@@ -0,0 +1,139 @@
+package common;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of durations in microseconds with about 3% precision, in the style of
+ * HdrHistogram: values below 64 have their own bucket, larger values share 32 buckets per power of two. Recording
+ * never allocates, so it can sit on hot paths; percentiles report the highest value of the matching bucket.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 32;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+    private static final int LINEAR_BITS = 6;
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR_BUCKETS + (63 - LINEAR_BITS) * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * To record one duration
+     *
+     * @param micros: the duration in microseconds, negative values count as 0
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * To record the time elapsed since a start taken with System.nanoTime
+     *
+     * @param startNanos
+     */
+    public void recordSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    /**
+     * To add every recorded duration of another histogram to this one
+     *
+     * @param other
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount > 0) {
+                counts.addAndGet(i, bucketCount);
+            }
+        }
+        count.addAndGet(other.count.get());
+        total.addAndGet(other.total.get());
+        long current = max.get();
+        while (other.max.get() > current && !max.compareAndSet(current, other.max.get())) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalMicros() {
+        return total.get();
+    }
+
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    public long getMeanMicros() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : total.get() / recorded;
+    }
+
+    /**
+     * To get the duration below or at which a percentage of the recorded durations fall
+     *
+     * @param percentile: between 0 and 100, e.g. 99 for p99
+     * @return the duration in microseconds, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long recorded = count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return "count: " + getCount() + ", p50: " + toMillis(getValueAtPercentile(50)) + ", p95: " + toMillis(getValueAtPercentile(95))
+                + ", p99: " + toMillis(getValueAtPercentile(99)) + ", max: " + toMillis(getMaxMicros());
+    }
+
+    /**
+     * To format a duration for logs
+     *
+     * @param micros
+     * @return the duration in milliseconds with one decimal, e.g. "12.5 ms"
+     */
+    public static String toMillis(long micros) {
+        return String.format(Locale.US, "%.1f ms", micros / 1000.0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - (LINEAR_BITS - 1);
+        return LINEAR_BUCKETS + (magnitude - LINEAR_BITS) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        long top = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = magnitude - (LINEAR_BITS - 1);
+        return ((top + 1) << shift) - 1;
+    }
+}
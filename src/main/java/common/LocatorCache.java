@@ -0,0 +1,227 @@
+package common;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles dynamic xpath templates once and keeps the resulting xpath and {@link By} per (template, values), so
+ * page helpers called in a loop do not format the template and allocate a new locator on every step.
+ * <p>
+ * Templates are parsed into literal and placeholder segments; {@code %s}, {@code %n$s} and {@code %%} are
+ * supported natively, any other conversion falls back to {@link String#format(String, Object...)}. Both caches
+ * are bounded and evict the least recently used entry.
+ */
+public class LocatorCache {
+    private final Map<String, Template> templates;
+    private final Map<Key, Locator> locators;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public static synchronized LocatorCache getCache() {
+        if (cache == null) {
+            cache = new LocatorCache(GlobalConstants.LOCATOR_CACHE_SIZE);
+        }
+        return cache;
+    }
+
+    private LocatorCache(final int maxEntries) {
+        templates = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        locators = new LinkedHashMap<Key, Locator>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Locator> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * To cast rest parameter into a template, reusing the xpath of an earlier call with the same values
+     *
+     * @param template: the xpath expression with placeholders, returned as is when no value is given
+     * @param values:   the values that will cast to the template
+     * @return full xpath expression with dynamic values
+     * @throws IllegalArgumentException if the template needs more values than given
+     */
+    public String format(String template, String... values) {
+        return getLocator(template, values).xpath;
+    }
+
+    /**
+     * To get the compiled xpath locator of a template and its values
+     *
+     * @param template: the xpath expression with placeholders, or a plain xpath that is used as is when no value is given
+     * @param values:   the values that will cast to the template
+     * @return way to find an element by xpath
+     * @throws IllegalArgumentException if the template needs more values than given
+     */
+    public By getByXpath(String template, String... values) {
+        Locator locator = getLocator(template, values);
+        if (locator.by == null) {
+            locator.by = By.xpath(locator.xpath);
+        }
+        return locator.by;
+    }
+
+    /**
+     * To get hit and miss counters of the locator cache
+     *
+     * @return a readable summary of the counters
+     */
+    public synchronized String getStatistics() {
+        long total = hits + misses;
+        return "hits: " + hits + ", misses: " + misses + ", hit rate: " + (total == 0 ? 0 : hits * 100 / total) + "%"
+                + ", evicted: " + evictions + ", templates: " + templates.size() + ", locators: " + locators.size();
+    }
+
+    private synchronized Locator getLocator(String template, String[] values) {
+        Key key = new Key(template, values == null ? new String[0] : values);
+        Locator locator = locators.get(key);
+        if (locator != null) {
+            hits++;
+            return locator;
+        }
+        misses++;
+        String xpath = template;
+        if (key.values.length > 0) {
+            Template compiled = templates.get(template);
+            if (compiled == null) {
+                compiled = new Template(template);
+                templates.put(template, compiled);
+            }
+            xpath = compiled.format(key.values);
+        }
+        locator = new Locator(xpath);
+        locators.put(new Key(template, key.values.clone()), locator);
+        return locator;
+    }
+
+    /**
+     * A template split into literal text and the index of the value each placeholder takes
+     */
+    private static class Template {
+        private final String source;
+        private final List<Object> segments = new ArrayList<Object>();
+        private final boolean compiled;
+        private int requiredValues;
+
+        private Template(String source) {
+            this.source = source;
+            this.compiled = parse();
+        }
+
+        private boolean parse() {
+            StringBuilder literal = new StringBuilder();
+            int nextValue = 0;
+            int i = 0;
+            while (i < source.length()) {
+                char c = source.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                    i++;
+                    continue;
+                }
+                if (i + 1 < source.length() && source.charAt(i + 1) == '%') {
+                    literal.append('%');
+                    i += 2;
+                    continue;
+                }
+                int end = i + 1;
+                while (end < source.length() && Character.isDigit(source.charAt(end))) {
+                    end++;
+                }
+                int valueIndex;
+                if (end == i + 1 && end < source.length() && source.charAt(end) == 's') {
+                    valueIndex = nextValue++;
+                } else if (end > i + 1 && end + 1 < source.length() && source.charAt(end) == '$' && source.charAt(end + 1) == 's') {
+                    valueIndex = Integer.parseInt(source.substring(i + 1, end)) - 1;
+                    if (valueIndex < 0) {
+                        return false;
+                    }
+                    end++;
+                } else {
+                    return false;
+                }
+                segments.add(literal.toString());
+                literal.setLength(0);
+                segments.add(valueIndex);
+                requiredValues = Math.max(requiredValues, valueIndex + 1);
+                i = end + 1;
+            }
+            segments.add(literal.toString());
+            return true;
+        }
+
+        private String format(String[] values) {
+            if (!compiled) {
+                return String.format(source, (Object[]) values);
+            }
+            if (values.length < requiredValues) {
+                throw new IllegalArgumentException("Template needs " + requiredValues + " values but got " + values.length + ": " + source);
+            }
+            if (segments.size() == 1) {
+                return (String) segments.get(0);
+            }
+            StringBuilder xpath = new StringBuilder(source.length() + 16 * values.length);
+            for (Object segment : segments) {
+                if (segment instanceof Integer) {
+                    xpath.append(values[(Integer) segment]);
+                } else {
+                    xpath.append((String) segment);
+                }
+            }
+            return xpath.toString();
+        }
+    }
+
+    private static class Locator {
+        private final String xpath;
+        private By by;
+
+        private Locator(String xpath) {
+            this.xpath = xpath;
+        }
+    }
+
+    private static class Key {
+        private final String template;
+        private final String[] values;
+        private final int hash;
+
+        private Key(String template, String[] values) {
+            this.template = template;
+            this.values = values;
+            this.hash = 31 * template.hashCode() + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && template.equals(key.template) && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static LocatorCache cache;
+}
@@ -0,0 +1,45 @@
+package common;
+
+/**
+ * A measured span of a test, e.g. one step of a scenario, that budget assertions in {@link AbstractTest} check
+ * against a maximum wall time or driver command count. Commands are counted by {@link CommandMeter} for the test
+ * running on the current thread, so the count stays 0 when metering is switched off or the driver is not metered.
+ */
+public class PerformanceBudget {
+    private final String name;
+    private final long startNanos;
+    private final long startCommands;
+
+    private PerformanceBudget(String name) {
+        this.name = name;
+        this.startNanos = System.nanoTime();
+        this.startCommands = CommandMeter.getMeter().getTestMetrics().getCommandCount();
+    }
+
+    /**
+     * To start measuring a step of the running test
+     *
+     * @param name: the name of the step, used in failure messages
+     * @return the started measurement
+     */
+    public static PerformanceBudget start(String name) {
+        return new PerformanceBudget(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1000000L;
+    }
+
+    /**
+     * To get how many driver commands the test sent since the step started
+     *
+     * @return the number of metered commands
+     */
+    public long getCommandCount() {
+        return CommandMeter.getMeter().getTestMetrics().getCommandCount() - startCommands;
+    }
+}
@@ -0,0 +1,131 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Quits browser sessions and afterwards terminates whatever is left of their own driver and browser process
+ * trees in the background. Processes of other sessions on the machine are never touched.
+ */
+public class ProcessReaper {
+    private final Log log = LogFactory.getLog(getClass());
+    private final ScheduledExecutorService executor;
+    private final AtomicInteger quitSessions = new AtomicInteger();
+    private final AtomicInteger cleanExits = new AtomicInteger();
+    private final AtomicInteger leakedProcesses = new AtomicInteger();
+    private final AtomicInteger unkillableProcesses = new AtomicInteger();
+
+    public static synchronized ProcessReaper getReaper() {
+        if (reaper == null) {
+            reaper = new ProcessReaper();
+        }
+        return reaper;
+    }
+
+    private ProcessReaper() {
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "process-reaper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * To quit a session and reap its leftover processes and cloned profile in the background after a grace period.
+     * The session stays registered while it quits, so {@link #forceKill(WebDriver)} can still find it if the quit hangs
+     *
+     * @param driver
+     */
+    public void quit(final WebDriver driver) {
+        ProcessRegistry.SessionProcesses tracked = ProcessRegistry.getRegistry().getProcesses(driver);
+        final Map<Long, String> tree = tracked == null ? null : tracked.getProcessTree();
+        quitQuietly(driver);
+        final ProcessRegistry.SessionProcesses processes = ProcessRegistry.getRegistry().unregister(driver);
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (tree != null && processes != null) {
+                    reap(processes, tree);
+                }
+                ProfileTemplateManager.getManager().discard(driver);
+            }
+        }, GlobalConstants.PROCESS_REAP_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * To quit a session and reap its leftover processes on the calling thread, e.g. when the JVM is shutting down
+     *
+     * @param driver
+     */
+    public void quitNow(WebDriver driver) {
+        ProcessRegistry.SessionProcesses tracked = ProcessRegistry.getRegistry().getProcesses(driver);
+        Map<Long, String> tree = tracked == null ? null : tracked.getProcessTree();
+        quitQuietly(driver);
+        ProcessRegistry.SessionProcesses processes = ProcessRegistry.getRegistry().unregister(driver);
+        if (tree != null && processes != null) {
+            reap(processes, tree);
+        }
+        ProfileTemplateManager.getManager().discard(driver);
+    }
+
+    /**
+     * To terminate the process tree of a session, without quitting its driver first
+     *
+     * @param driver
+     */
+    public void forceKill(WebDriver driver) {
+        ProcessRegistry.SessionProcesses processes = ProcessRegistry.getRegistry().unregister(driver);
+        if (processes != null) {
+            reap(processes, processes.getProcessTree());
+        }
+        ProfileTemplateManager.getManager().discard(driver);
+    }
+
+    /**
+     * To get counters of quit sessions and processes that had to be terminated
+     *
+     * @return a readable summary of the counters
+     */
+    public String getStatistics() {
+        return "quit sessions: " + quitSessions.get() + ", clean exits: " + cleanExits.get()
+                + ", leaked processes terminated: " + leakedProcesses.get() + ", processes still running: " + unkillableProcesses.get();
+    }
+
+    private void reap(ProcessRegistry.SessionProcesses processes, Map<Long, String> tree) {
+        try {
+            Map<Long, String> leftovers = ProcessUtils.filterAlive(tree);
+            if (leftovers.isEmpty()) {
+                cleanExits.incrementAndGet();
+                return;
+            }
+            Map<Long, String> alive = ProcessUtils.terminate(leftovers, GlobalConstants.PROCESS_KILL_TIMEOUT_MILLIS);
+            leakedProcesses.addAndGet(leftovers.size() - alive.size());
+            unkillableProcesses.addAndGet(alive.size());
+            log.warn("|ProcessReaper| - |reap| - Session " + processes + " leaked processes " + leftovers.keySet() + ", still running: " + alive.keySet());
+        } catch (Exception e) {
+            log.error("|ProcessReaper| - |reap| - Cannot reap processes of " + processes + ": " + e.getMessage());
+        }
+    }
+
+    private void quitQuietly(WebDriver driver) {
+        quitSessions.incrementAndGet();
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            log.error("|ProcessReaper| - |quitQuietly| - Cannot quit driver: " + e.getMessage());
+        }
+    }
+
+    private static ProcessReaper reaper;
+}
@@ -0,0 +1,137 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the exact driver and browser processes that each browser session spawned, so they can be terminated
+ * without touching the processes of sibling sessions. A session is registered with its driver port only; the PIDs
+ * behind it are resolved when the session is quit or force killed.
+ */
+public class ProcessRegistry {
+    private final Log log = LogFactory.getLog(getClass());
+    private final Map<WebDriver, SessionProcesses> sessions = new IdentityHashMap<WebDriver, SessionProcesses>();
+
+    public static class SessionProcesses {
+        private final BROWSER browser;
+        private final int driverPort;
+        private long driverPid;
+        private long browserPid;
+
+        SessionProcesses(BROWSER browser, int driverPort, long browserPid) {
+            this.browser = browser;
+            this.driverPort = driverPort;
+            this.driverPid = -1;
+            this.browserPid = browserPid;
+        }
+
+        public BROWSER getBrowser() {
+            return browser;
+        }
+
+        /**
+         * To get the PID of the driver executable, looked up from its port on first use
+         *
+         * @return the PID, -1 if it cannot be found
+         */
+        public synchronized long getDriverPid() {
+            if (driverPid <= 0) {
+                driverPid = ProcessUtils.findListeningPid(driverPort);
+            }
+            return driverPid;
+        }
+
+        public synchronized long getBrowserPid() {
+            return browserPid;
+        }
+
+        /**
+         * To list the current process tree of the driver and the browser. The PIDs are only looked up here, when a
+         * quit or a force kill needs them, so launching a session runs no process commands
+         *
+         * @return the start time per PID of every process that belongs to this session
+         */
+        public Map<Long, String> getProcessTree() {
+            long driver = getDriverPid();
+            Map<Long, String> tree = ProcessUtils.getProcessTree(driver, getBrowserPid());
+            synchronized (this) {
+                if (browserPid <= 0 && driver > 0 && tree.size() > 1) {
+                    browserPid = new ArrayList<Long>(tree.keySet()).get(1);
+                }
+            }
+            return tree;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return browser + " (driver port: " + driverPort + ", driver pid: " + driverPid + ", browser pid: " + browserPid + ")";
+        }
+    }
+
+    public static synchronized ProcessRegistry getRegistry() {
+        if (registry == null) {
+            registry = new ProcessRegistry();
+        }
+        return registry;
+    }
+
+    private ProcessRegistry() {
+    }
+
+    /**
+     * To record the processes of a new browser session
+     *
+     * @param driver:  the session that was just created
+     * @param browser: the type of browser of the session
+     * @param service: the driver service that started the driver executable, null if the driver has no service
+     */
+    public void register(WebDriver driver, BROWSER browser, DriverService service) {
+        if (service == null || service.getUrl() == null) {
+            return;
+        }
+        SessionProcesses processes = new SessionProcesses(browser, service.getUrl().getPort(), getBrowserPid(driver));
+        synchronized (this) {
+            sessions.put(driver, processes);
+        }
+        log.debug("|ProcessRegistry| - |register|: Track " + processes);
+    }
+
+    /**
+     * To stop tracking a session and hand back its processes
+     *
+     * @param driver
+     * @return the processes of the session, null if the session was not registered
+     */
+    public synchronized SessionProcesses unregister(WebDriver driver) {
+        return sessions.remove(driver);
+    }
+
+    /**
+     * To get the processes of a session that is still tracked
+     *
+     * @param driver
+     * @return the processes of the session, null if the session was not registered
+     */
+    public synchronized SessionProcesses getProcesses(WebDriver driver) {
+        return sessions.get(driver);
+    }
+
+    private long getBrowserPid(WebDriver driver) {
+        if (driver instanceof HasCapabilities) {
+            Object processId = ((HasCapabilities) driver).getCapabilities().getCapability("moz:processID");
+            if (processId instanceof Number) {
+                return ((Number) processId).longValue();
+            }
+        }
+        return -1;
+    }
+
+    private static ProcessRegistry registry;
+}
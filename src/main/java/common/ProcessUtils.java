@@ -0,0 +1,268 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Operating system process lookups by PID. Liveness and process trees are answered from one listing of the
+ * process table per call, however many PIDs are asked about. Processes are identified by PID and start time, so a
+ * PID the system gave to a new process is never mistaken for the old one. Every command runs with a bounded timeout so a hanging
+ * tool cannot block a test thread or the reaper.
+ */
+public class ProcessUtils {
+    private static final Log log = LogFactory.getLog(ProcessUtils.class);
+    private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase().contains("windows");
+    private static final Pattern SS_PID = Pattern.compile("pid=(\\d+)");
+
+    private ProcessUtils() {
+    }
+
+    /**
+     * To find the process listening on a local TCP port, e.g. the driver executable behind a driver service
+     *
+     * @param port
+     * @return the PID, -1 if it cannot be found
+     */
+    public static long findListeningPid(int port) {
+        if (WINDOWS) {
+            String output = run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, "netstat", "-ano", "-p", "tcp");
+            for (String line : output.split("\\r?\\n")) {
+                String[] columns = line.trim().split("\\s+");
+                if (columns.length >= 5 && columns[1].endsWith(":" + port) && columns[3].equals("LISTENING")) {
+                    return parsePid(columns[4]);
+                }
+            }
+            return -1;
+        }
+        String output = run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, "lsof", "-nP", "-t", "-iTCP:" + port, "-sTCP:LISTEN");
+        long pid = parsePid(output.trim().split("\\s+")[0]);
+        if (pid > 0) {
+            return pid;
+        }
+        output = run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, "ss", "-ltnpH", "sport = :" + port);
+        Matcher matcher = SS_PID.matcher(output);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * To list processes and all of their descendants from one snapshot of the process table, with the start time
+     * of each process so a later signal can tell a reused PID apart
+     *
+     * @param rootPids
+     * @return the start time per PID of the trees, each running root before its descendants, empty if no root is
+     * running
+     */
+    public static Map<Long, String> getProcessTree(long... rootPids) {
+        Map<Long, ProcessEntry> processes = getProcesses();
+        List<Long> tree = new ArrayList<Long>();
+        for (long rootPid : rootPids) {
+            if (processes.containsKey(rootPid) && !tree.contains(rootPid)) {
+                tree.add(rootPid);
+            }
+        }
+        for (int i = 0; i < tree.size(); i++) {
+            for (Map.Entry<Long, ProcessEntry> process : processes.entrySet()) {
+                if (process.getValue().parentPid == tree.get(i) && !tree.contains(process.getKey())) {
+                    tree.add(process.getKey());
+                }
+            }
+        }
+        Map<Long, String> startTimes = new LinkedHashMap<Long, String>();
+        for (Long pid : tree) {
+            startTimes.put(pid, processes.get(pid).startTime);
+        }
+        return startTimes;
+    }
+
+    /**
+     * To terminate exactly the given processes, politely first and forcibly after the timeout. A PID that now
+     * belongs to a process with another start time is never signalled
+     *
+     * @param processes:     the start time per PID of the processes that will be terminated
+     * @param timeoutMillis: how long the processes get to exit after the polite signal
+     * @return the start time per PID of the processes that are still running afterwards
+     */
+    public static Map<Long, String> terminate(Map<Long, String> processes, long timeoutMillis) {
+        Map<Long, String> alive = filterAlive(processes);
+        if (alive.isEmpty()) {
+            return alive;
+        }
+        if (WINDOWS) {
+            for (Long pid : alive.keySet()) {
+                run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, "taskkill", "/F", "/PID", String.valueOf(pid));
+            }
+            return filterAlive(alive);
+        }
+        run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, withPids(alive.keySet(), "kill", "-TERM"));
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!alive.isEmpty() && System.currentTimeMillis() < deadline) {
+            sleepQuietly(100);
+            alive = filterAlive(alive);
+        }
+        if (!alive.isEmpty()) {
+            run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, withPids(alive.keySet(), "kill", "-KILL"));
+            alive = filterAlive(alive);
+        }
+        return alive;
+    }
+
+    /**
+     * To keep only the processes that are still running with the same start time, so a PID that was reused by
+     * another process in the meantime is dropped
+     *
+     * @param processes: the start time per PID, as returned by {@link #getProcessTree(long...)}
+     * @return the start time per PID of the processes that are still running
+     */
+    public static Map<Long, String> filterAlive(Map<Long, String> processes) {
+        Map<Long, String> alive = new LinkedHashMap<Long, String>();
+        if (processes.isEmpty()) {
+            return alive;
+        }
+        Map<Long, ProcessEntry> running = getProcesses();
+        for (Map.Entry<Long, String> process : processes.entrySet()) {
+            ProcessEntry entry = running.get(process.getKey());
+            if (entry != null && entry.startTime.equals(process.getValue())) {
+                alive.put(process.getKey(), process.getValue());
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * To read the parent and start time of every process in one command
+     *
+     * @return the running processes by PID
+     */
+    private static Map<Long, ProcessEntry> getProcesses() {
+        Map<Long, ProcessEntry> processes = new HashMap<Long, ProcessEntry>();
+        String output = WINDOWS
+                ? run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, "wmic", "process", "get", "CreationDate,ParentProcessId,ProcessId")
+                : run(GlobalConstants.PROCESS_COMMAND_TIMEOUT_MILLIS, "ps", "-A", "-o", "ppid=", "-o", "pid=", "-o", "lstart=");
+        for (String line : output.split("\\r?\\n")) {
+            String[] columns = line.trim().split("\\s+", 3);
+            if (columns.length != 3) {
+                continue;
+            }
+            long parent = WINDOWS ? parsePid(columns[1]) : parsePid(columns[0]);
+            long pid = WINDOWS ? parsePid(columns[2]) : parsePid(columns[1]);
+            String startTime = WINDOWS ? columns[0] : columns[2];
+            if (pid > 0) {
+                processes.put(pid, new ProcessEntry(parent, startTime));
+            }
+        }
+        return processes;
+    }
+
+    private static String[] withPids(Collection<Long> pids, String... command) {
+        List<String> arguments = new ArrayList<String>(Arrays.asList(command));
+        for (Long pid : pids) {
+            arguments.add(String.valueOf(pid));
+        }
+        return arguments.toArray(new String[0]);
+    }
+
+    private static long parsePid(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * To run a command and wait for it within a bounded timeout. The output goes to a temporary file, so a command
+     * that prints a lot cannot fill an unread pipe and block
+     *
+     * @param timeoutMillis: the longest time to wait for the command
+     * @param command:       the executable and its arguments
+     * @return the exit code, -1 if the command cannot run or timed out
+     */
+    public static int exitCode(long timeoutMillis, String... command) {
+        Process process = null;
+        File output = null;
+        try {
+            output = File.createTempFile("process", ".out");
+            process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+            process.getOutputStream().close();
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("|ProcessUtils| - |exitCode| - Command timed out: " + Arrays.toString(command));
+                return -1;
+            }
+            return process.exitValue();
+        } catch (Exception e) {
+            log.debug("|ProcessUtils| - |exitCode|: Cannot run " + Arrays.toString(command) + ": " + e.getMessage());
+            return -1;
+        } finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+            if (output != null) {
+                output.delete();
+            }
+        }
+    }
+
+    private static String run(long timeoutMillis, String... command) {
+        Process process = null;
+        File output = null;
+        try {
+            output = File.createTempFile("process", ".out");
+            process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+            process.getOutputStream().close();
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("|ProcessUtils| - |run| - Command timed out: " + Arrays.toString(command));
+                return "";
+            }
+            return new String(Files.readAllBytes(output.toPath()), Charset.defaultCharset());
+        } catch (IOException e) {
+            log.debug("|ProcessUtils| - |run|: Cannot run " + Arrays.toString(command) + ": " + e.getMessage());
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        } finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+            if (output != null) {
+                output.delete();
+            }
+        }
+    }
+
+    /**
+     * The parent and start time of a running process
+     */
+    private static class ProcessEntry {
+        private final long parentPid;
+        private final String startTime;
+
+        private ProcessEntry(long parentPid, String startTime) {
+            this.parentPid = parentPid;
+            this.startTime = startTime;
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
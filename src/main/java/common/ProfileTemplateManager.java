@@ -0,0 +1,348 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a warmed browser profile once per driver version and gives every session its own clone of it, so the
+ * first-run work of the browser (profile creation, first-run screens, cache priming) is not repeated per test.
+ * <p>
+ * Clones are made with copy-on-write where the file system supports it ({@code cp --reflink=auto} on Linux,
+ * {@code cp -c} on macOS) and fall back to a plain copy. Hard links are not used because browsers rewrite their
+ * profile databases in place, which would corrupt the template. Chrome and Firefox profiles are supported.
+ */
+public class ProfileTemplateManager {
+    private static final String READY_MARKER = ".template-ready";
+    private static final Set<String> LOCK_FILES = new HashSet<String>(Arrays.asList(
+            "SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile", "lock", ".parentlock", "parent.lock"));
+    private static final String OS = System.getProperty("os.name").toLowerCase();
+    private final Log log = LogFactory.getLog(getClass());
+    private final File templateFolder;
+    private final File sessionFolder;
+    private final Map<String, File> templates = new HashMap<String, File>();
+    private final Map<WebDriver, File> clones = new IdentityHashMap<WebDriver, File>();
+    private final long[] templatedLaunches = new long[2];
+    private final long[] coldLaunches = new long[2];
+    private final long[] cloneCosts = new long[2];
+    private long buildMillis;
+
+    public static synchronized ProfileTemplateManager getManager() {
+        if (manager == null) {
+            manager = new ProfileTemplateManager(new File(GlobalConstants.PROFILE_FOLDER));
+        }
+        return manager;
+    }
+
+    private ProfileTemplateManager(File profileFolder) {
+        templateFolder = new File(profileFolder, "templates");
+        sessionFolder = new File(profileFolder, "sessions");
+    }
+
+    /**
+     * To check the browser keeps its state in a profile folder we can clone, whether or not templates are switched on
+     *
+     * @param browser
+     * @return true if sessions of this browser could start from a template
+     */
+    public boolean hasProfile(BROWSER browser) {
+        DriverBinaryResolver.DriverBinary binary = DriverBinaryResolver.getDriverBinary(browser);
+        return binary == DriverBinaryResolver.DriverBinary.CHROMEDRIVER || binary == DriverBinaryResolver.DriverBinary.GECKODRIVER;
+    }
+
+    /**
+     * To check templates are switched on and the browser keeps its state in a profile folder we can clone
+     *
+     * @param browser
+     * @return true if sessions of this browser start from a template
+     */
+    public boolean isSupported(BROWSER browser) {
+        return GlobalConstants.PROFILE_TEMPLATE && hasProfile(browser);
+    }
+
+    /**
+     * To build the template of a browser if this driver version has none yet, so the one-off build is not counted
+     * as part of a launch
+     *
+     * @param browser
+     */
+    public void prepareTemplate(BROWSER browser) {
+        if (isSupported(browser)) {
+            getTemplate(browser);
+        }
+    }
+
+    /**
+     * To give a new session its own clone of the warmed template, building the template first if this driver
+     * version has none yet
+     *
+     * @param browser: the type of browser that will be launched
+     * @return the folder of the cloned profile, null if templates are not used for this browser or cannot be built
+     */
+    public File cloneProfile(BROWSER browser) {
+        if (!isSupported(browser)) {
+            return null;
+        }
+        File template = getTemplate(browser);
+        if (template == null) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        File clone = new File(sessionFolder, UUID.randomUUID().toString());
+        try {
+            copyProfile(template, clone);
+        } catch (IOException e) {
+            log.warn("|ProfileTemplateManager| - |cloneProfile| - Cannot clone profile template " + template + ": " + e.getMessage());
+            deleteProfile(clone);
+            return null;
+        }
+        synchronized (this) {
+            record(cloneCosts, System.currentTimeMillis() - start);
+        }
+        return clone;
+    }
+
+    /**
+     * To remember which cloned profile a session uses, so it is deleted when the session is quit
+     *
+     * @param driver
+     * @param clone: the folder returned by {@link #cloneProfile(BROWSER)}
+     */
+    public synchronized void attach(WebDriver driver, File clone) {
+        if (clone != null) {
+            clones.put(driver, clone);
+        }
+    }
+
+    /**
+     * To delete the cloned profile of a session after its browser exited
+     *
+     * @param driver
+     */
+    public void discard(WebDriver driver) {
+        File clone;
+        synchronized (this) {
+            clone = clones.remove(driver);
+        }
+        deleteProfile(clone);
+    }
+
+    /**
+     * To delete a cloned profile folder
+     *
+     * @param clone
+     */
+    public void deleteProfile(File clone) {
+        if (clone == null || !clone.exists()) {
+            return;
+        }
+        try {
+            deleteRecursively(clone.toPath());
+        } catch (IOException e) {
+            log.warn("|ProfileTemplateManager| - |deleteProfile| - Cannot delete cloned profile " + clone + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * To record how long a browser launch took with or without a template, cloning included
+     *
+     * @param templated: true if the session started from a cloned template
+     * @param millis
+     */
+    public synchronized void recordLaunch(boolean templated, long millis) {
+        record(templated ? templatedLaunches : coldLaunches, millis);
+    }
+
+    /**
+     * To check a launch of a profile browser was recorded, with or without a template
+     *
+     * @return true if there are launch times to compare
+     */
+    public synchronized boolean hasLaunches() {
+        return templatedLaunches[0] + coldLaunches[0] > 0;
+    }
+
+    /**
+     * To delete the clones of every session of this JVM that is still open, e.g. when the JVM is shutting down
+     */
+    public void cleanup() {
+        List<File> leftovers;
+        synchronized (this) {
+            leftovers = new ArrayList<File>(clones.values());
+            clones.clear();
+        }
+        for (File clone : leftovers) {
+            deleteProfile(clone);
+        }
+    }
+
+    /**
+     * To compare the startup time of sessions with and without a template
+     *
+     * @return a readable summary of the launch and clone costs
+     */
+    public synchronized String getStatistics() {
+        return "with template avg " + average(templatedLaunches) + " ms (" + templatedLaunches[0] + "x)"
+                + ", without template avg " + average(coldLaunches) + " ms (" + coldLaunches[0] + "x)"
+                + ", clone avg " + average(cloneCosts) + " ms, template build " + buildMillis + " ms";
+    }
+
+    private synchronized File getTemplate(BROWSER browser) {
+        DriverBinaryResolver.DriverBinary binary = DriverBinaryResolver.getDriverBinary(browser);
+        DriverBinaryResolver.resolve(browser);
+        String key = binary.name().toLowerCase() + "-" + DriverBinaryResolver.getDriverVersion(binary);
+        File template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
+        template = new File(templateFolder, key);
+        if (!new File(template, READY_MARKER).isFile()) {
+            long start = System.currentTimeMillis();
+            try {
+                deleteProfile(template);
+                Files.createDirectories(template.toPath());
+                if (binary == DriverBinaryResolver.DriverBinary.CHROMEDRIVER) {
+                    warmChromeProfile(template);
+                } else {
+                    warmFirefoxProfile(template);
+                }
+                removeLockFiles(template.toPath());
+                Files.createFile(new File(template, READY_MARKER).toPath());
+            } catch (Exception e) {
+                log.warn("|ProfileTemplateManager| - |getTemplate| - Cannot build profile template " + key + ": " + e.getMessage());
+                deleteProfile(template);
+                return null;
+            }
+            buildMillis += System.currentTimeMillis() - start;
+            log.info("|ProfileTemplateManager| - |getTemplate|: Built profile template " + template + " in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        templates.put(key, template);
+        return template;
+    }
+
+    private void warmChromeProfile(File template) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("headless", "--user-data-dir=" + template.getAbsolutePath(), "--no-first-run", "--no-default-browser-check");
+        warm(new ChromeDriver(ChromeDriverService.createDefaultService(), options));
+    }
+
+    private void warmFirefoxProfile(File template) throws IOException {
+        String preferences = "user_pref(\"browser.shell.checkDefaultBrowser\", false);\n"
+                + "user_pref(\"browser.startup.homepage_override.mstone\", \"ignore\");\n"
+                + "user_pref(\"startup.homepage_welcome_url\", \"about:blank\");\n"
+                + "user_pref(\"startup.homepage_welcome_url.additional\", \"\");\n"
+                + "user_pref(\"datareporting.policy.dataSubmissionPolicyBypassNotification\", true);\n"
+                + "user_pref(\"toolkit.telemetry.reportingpolicy.firstRun\", false);\n"
+                + "user_pref(\"browser.aboutwelcome.enabled\", false);\n";
+        Files.write(new File(template, "user.js").toPath(), preferences.getBytes(Charset.forName("UTF-8")));
+        FirefoxOptions options = new FirefoxOptions();
+        options.setHeadless(true);
+        options.addArguments("-profile", template.getAbsolutePath());
+        warm(new FirefoxDriver(GeckoDriverService.createDefaultService(), options));
+    }
+
+    private void warm(WebDriver driver) {
+        try {
+            driver.manage().timeouts().pageLoadTimeout(GlobalConstants.LONG_TIMEOUT, TimeUnit.SECONDS);
+            driver.get(GlobalConstants.PROFILE_WARMUP_URL);
+        } finally {
+            driver.quit();
+        }
+    }
+
+    private void copyProfile(File template, File clone) throws IOException {
+        Files.createDirectories(sessionFolder.toPath());
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(GlobalConstants.LONG_TIMEOUT);
+        int exitCode = -1;
+        if (OS.contains("linux")) {
+            exitCode = ProcessUtils.exitCode(timeoutMillis, "cp", "-a", "--reflink=auto", template.getAbsolutePath(), clone.getAbsolutePath());
+        } else if (OS.contains("mac")) {
+            exitCode = ProcessUtils.exitCode(timeoutMillis, "cp", "-c", "-R", template.getAbsolutePath(), clone.getAbsolutePath());
+        }
+        if (exitCode == 0) {
+            return;
+        }
+        deleteProfile(clone);
+        final Path source = template.toPath();
+        final Path target = clone.toPath();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(directory)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void removeLockFiles(Path folder) throws IOException {
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (LOCK_FILES.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void deleteRecursively(Path folder) throws IOException {
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                Files.deleteIfExists(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void record(long[] cost, long millis) {
+        cost[0]++;
+        cost[1] += millis;
+    }
+
+    private static long average(long[] cost) {
+        return cost[0] == 0 ? 0 : cost[1] / cost[0];
+    }
+
+    private static ProfileTemplateManager manager;
+}
@@ -0,0 +1,137 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waits till a page is idle instead of sleeping a fixed time. The first call on a page installs a small
+ * instrumentation on window that counts XMLHttpRequest and fetch calls in flight; one executeAsyncScript call
+ * then waits in the page till the document is complete, no request is in flight, jQuery.active is 0, no finite
+ * animation is running, the scroll position is stable, and nothing changed for
+ * {@link GlobalConstants#QUIESCENCE_QUIET_MILLIS}.
+ * <p>
+ * Requests started before the instrumentation was installed are not seen. Infinite animations, e.g. spinners, are
+ * ignored. The wait gives up after {@link GlobalConstants#QUIESCENCE_TIMEOUT_MILLIS} and never throws; drivers
+ * without JavaScript do not wait.
+ */
+public class QuiescenceDetector {
+    private static final String AWAIT_IDLE = "var timeout = arguments[0], quiet = arguments[1], done = arguments[arguments.length - 1];"
+            + "var state = window.__quiescence;"
+            + "if (!state) {"
+            + "  state = window.__quiescence = {pending: 0, last: Date.now()};"
+            + "  var settle = function () { state.pending = Math.max(0, state.pending - 1); state.last = Date.now(); };"
+            + "  if (window.XMLHttpRequest) {"
+            + "    var send = XMLHttpRequest.prototype.send;"
+            + "    XMLHttpRequest.prototype.send = function () {"
+            + "      var settled = false, once = function () { if (!settled) { settled = true; settle(); } };"
+            + "      state.pending++;"
+            + "      state.last = Date.now();"
+            + "      this.addEventListener('loadend', once);"
+            + "      try { return send.apply(this, arguments); } catch (e) { once(); throw e; }"
+            + "    };"
+            + "  }"
+            + "  if (window.fetch) {"
+            + "    var fetch = window.fetch;"
+            + "    window.fetch = function () {"
+            + "      state.pending++;"
+            + "      state.last = Date.now();"
+            + "      try { var request = fetch.apply(this, arguments); request.then(settle, settle); return request; } catch (e) { settle(); throw e; }"
+            + "    };"
+            + "  }"
+            + "}"
+            + "var start = Date.now(), scroll = null;"
+            + "var busy = function () {"
+            + "  if (document.readyState !== 'complete') { return 'document is ' + document.readyState; }"
+            + "  if (state.pending > 0) { return state.pending + ' requests in flight'; }"
+            + "  if (window.jQuery && window.jQuery.active > 0) { return window.jQuery.active + ' jQuery requests active'; }"
+            + "  if (document.getAnimations) {"
+            + "    var running = document.getAnimations().filter(function (animation) {"
+            + "      if (animation.playState !== 'running') { return false; }"
+            + "      var timing = animation.effect && animation.effect.getComputedTiming ? animation.effect.getComputedTiming() : null;"
+            + "      return !timing || timing.iterations !== Infinity;"
+            + "    });"
+            + "    if (running.length > 0) { state.last = Date.now(); return running.length + ' animations running'; }"
+            + "  }"
+            + "  var position = window.scrollX + ',' + window.scrollY;"
+            + "  var scrolled = scroll !== null && position !== scroll;"
+            + "  scroll = position;"
+            + "  if (scrolled) { state.last = Date.now(); return 'page is scrolling'; }"
+            + "  return null;"
+            + "};"
+            + "var check = function () {"
+            + "  var reason = busy();"
+            + "  var now = Date.now();"
+            + "  if (!reason && now - state.last >= quiet) { done({idle: true, waited: now - start}); return; }"
+            + "  if (now - start >= timeout) { done({idle: false, waited: now - start, reason: reason || 'page changed in the last ' + quiet + ' ms'}); return; }"
+            + "  setTimeout(check, 20);"
+            + "};"
+            + "check();";
+    private final Log log = LogFactory.getLog(getClass());
+    private final LatencyHistogram idleWaits = new LatencyHistogram();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public static synchronized QuiescenceDetector getDetector() {
+        if (detector == null) {
+            detector = new QuiescenceDetector();
+        }
+        return detector;
+    }
+
+    private QuiescenceDetector() {
+    }
+
+    /**
+     * To wait till the page in the current window is idle
+     *
+     * @param driver
+     * @return true if the page became idle, false if the wait gave up or could not run
+     */
+    public boolean awaitIdle(WebDriver driver) {
+        return awaitIdle(driver, GlobalConstants.QUIESCENCE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * To wait till the page in the current window is idle, at most a given time
+     *
+     * @param driver
+     * @param timeoutMillis: the longest time to wait
+     * @return true if the page became idle, false if the wait gave up or could not run
+     */
+    public boolean awaitIdle(WebDriver driver, long timeoutMillis) {
+        if (!DriverCompatibility.supports(driver, DriverCompatibility.Feature.JAVASCRIPT)) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = ((JavascriptExecutor) driver).executeAsyncScript(AWAIT_IDLE, timeoutMillis, GlobalConstants.QUIESCENCE_QUIET_MILLIS);
+            idleWaits.recordSince(start);
+            Map<?, ?> state = result instanceof Map ? (Map<?, ?>) result : null;
+            if (state != null && Boolean.TRUE.equals(state.get("idle"))) {
+                return true;
+            }
+            timeouts.incrementAndGet();
+            log.debug("|QuiescenceDetector| - |awaitIdle|: Page is not idle after " + timeoutMillis + " ms: " + (state == null ? result : state.get("reason")));
+        } catch (Exception e) {
+            idleWaits.recordSince(start);
+            timeouts.incrementAndGet();
+            log.debug("|QuiescenceDetector| - |awaitIdle|: Cannot wait for an idle page: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * To get how long the helpers waited for idle pages
+     *
+     * @return a readable summary of the waits
+     */
+    public String getStatistics() {
+        return idleWaits + ", gave up: " + timeouts.get();
+    }
+
+    private static QuiescenceDetector detector;
+}
@@ -0,0 +1,162 @@
+package common;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the snippets of the *ByJS helpers as constant functions that take every value as an argument. The first
+ * call on a page installs all of them on window in one script call; later calls send only a short constant invoker
+ * with the script name and its arguments. When the page navigated and lost the functions, the invoker reports it and
+ * the call installs them again, so a caller never sees the difference. With -Dscript.registry=false every call sends
+ * its function inline instead.
+ * <p>
+ * Each script counts its calls and records their latency, including the install when one was needed.
+ */
+public class ScriptRegistry {
+    private static final String MISSING = "__scriptRegistry.missing";
+    private static final List<Script> scripts = new ArrayList<Script>();
+    public static final Script SET_VALUE_ATTRIBUTE = define("setValueAttribute", "function (element, value) { element.setAttribute('value', value); }");
+    public static final Script CLICK = define("click", "function (element) { element.click(); }");
+    public static final Script OPEN_WINDOW = define("openWindow", "function () { window.open(); }");
+    public static final Script NAVIGATE = define("navigate", "function (url) { window.location = url; }");
+    public static final Script GET_DOMAIN = define("getDomain", "function () { return document.domain; }");
+    public static final Script GET_TITLE = define("getTitle", "function () { return document.title; }");
+    public static final Script GET_URL = define("getUrl", "function () { return document.URL; }");
+    public static final Script GET_LOCAL_STORAGE_ITEM = define("getLocalStorageItem", "function (key) { return window.localStorage.getItem(key); }");
+    public static final Script GET_INNER_TEXT = define("getInnerText", "function () { return document.documentElement.innerText; }");
+    public static final Script SCROLL_INTO_VIEW = define("scrollIntoView", "function (element) { element.scrollIntoView(true); }");
+    public static final Script SCROLL_TO_BOTTOM = define("scrollToBottom", "function () { window.scrollBy(0, document.body.scrollHeight); }");
+    public static final Script SCROLL_TO_TOP = define("scrollToTop", "function () { window.scrollTo(0, 0); }");
+    public static final Script REMOVE_ATTRIBUTE = define("removeAttribute", "function (element, attribute) { element.removeAttribute(attribute); }");
+    public static final Script HIGHLIGHT = define("highlight", "function (element, millis) {"
+            + "  var originalStyle = element.getAttribute('style');"
+            + "  element.setAttribute('style', 'border: 2px solid red; border-style: dashed;');"
+            + "  setTimeout(function () {"
+            + "    if (originalStyle === null) { element.removeAttribute('style'); } else { element.setAttribute('style', originalStyle); }"
+            + "  }, millis);"
+            + "}");
+    public static final Script IS_IMAGE_LOADED = define("isImageLoaded", "function (image) {"
+            + "  return !!image.complete && typeof image.naturalWidth !== 'undefined' && image.naturalWidth > 0;"
+            + "}");
+    public static final Script GET_PAGE_LOAD_TIME = define("getPageLoadTime", "function () {"
+            + "  var performance = window.performance;"
+            + "  var entries = performance && performance.getEntriesByType ? performance.getEntriesByType('navigation') : [];"
+            + "  if (entries.length > 0) { return entries[0].loadEventEnd > 0 ? Math.round(entries[0].loadEventEnd - entries[0].startTime) : -1; }"
+            + "  var timing = performance && performance.timing;"
+            + "  return timing && timing.loadEventEnd > 0 ? timing.loadEventEnd - timing.navigationStart : -1;"
+            + "}");
+    private static final String INVOKE = "return window.__scriptRegistry.functions[arguments[0]].apply(null, Array.prototype.slice.call(arguments, 2));";
+    private static final String INVOKE_INSTALLED = "var registry = window.__scriptRegistry;"
+            + "if (!registry || registry.version !== arguments[1]) { return '" + MISSING + "'; }"
+            + INVOKE;
+    private final String installAndInvoke;
+    private final String version;
+    private final LatencyHistogram installs = new LatencyHistogram();
+
+    public static synchronized ScriptRegistry getRegistry() {
+        if (registry == null) {
+            registry = new ScriptRegistry();
+        }
+        return registry;
+    }
+
+    private ScriptRegistry() {
+        StringBuilder functions = new StringBuilder();
+        for (Script script : scripts) {
+            functions.append(functions.length() == 0 ? "" : ", ").append("'").append(script.name).append("': ").append(script.function);
+        }
+        version = Integer.toHexString(functions.toString().hashCode());
+        installAndInvoke = "window.__scriptRegistry = {version: arguments[1], functions: {" + functions + "}};" + INVOKE;
+    }
+
+    /**
+     * To run a registered script in the current page or frame
+     *
+     * @param driver
+     * @param script: one of the scripts of this registry
+     * @param args:   the arguments of the script function, e.g. elements, texts or numbers
+     * @return the value returned by the script function
+     */
+    public Object execute(WebDriver driver, Script script, Object... args) {
+        long start = System.nanoTime();
+        JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+        try {
+            if (!GlobalConstants.SCRIPT_REGISTRY) {
+                return jsExecutor.executeScript(script.inline, args);
+            }
+            Object[] invokeArgs = new Object[args.length + 2];
+            invokeArgs[0] = script.name;
+            invokeArgs[1] = version;
+            System.arraycopy(args, 0, invokeArgs, 2, args.length);
+            Object result = jsExecutor.executeScript(INVOKE_INSTALLED, invokeArgs);
+            if (MISSING.equals(result)) {
+                long installStart = System.nanoTime();
+                result = jsExecutor.executeScript(installAndInvoke, invokeArgs);
+                installs.recordSince(installStart);
+            }
+            return result;
+        } finally {
+            script.latency.recordSince(start);
+        }
+    }
+
+    /**
+     * To get the call count and latency of every script that ran
+     *
+     * @return a readable summary per script
+     */
+    public String getStatistics() {
+        StringBuilder statistics = new StringBuilder("installs: " + installs.getCount());
+        for (Script script : scripts) {
+            if (script.latency.getCount() > 0) {
+                statistics.append("; ").append(script.name).append(" ").append(script.latency);
+            }
+        }
+        return statistics.toString();
+    }
+
+    public static List<Script> getScripts() {
+        return Collections.unmodifiableList(scripts);
+    }
+
+    private static Script define(String name, String function) {
+        Script script = new Script(name, function);
+        scripts.add(script);
+        return script;
+    }
+
+    /**
+     * A named script function and its latency
+     */
+    public static class Script {
+        private final String name;
+        private final String function;
+        private final String inline;
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Script(String name, String function) {
+            this.name = name;
+            this.function = function;
+            this.inline = "return (" + function + ").apply(null, arguments);";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static ScriptRegistry registry;
+}
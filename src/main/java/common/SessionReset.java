@@ -0,0 +1,196 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.charset.Charset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Brings a running browser back to the state of a freshly launched one, so it can be reused instead of being quit
+ * and relaunched. Every reset ends with a checksum of the observable session state, which must equal the checksum
+ * of a fresh session before the browser is trusted again.
+ * <p>
+ * Cookies and web storage can only be cleared for the origin that is open when the reset starts, because WebDriver
+ * has no cross-origin storage API.
+ */
+public class SessionReset {
+    private static final Log log = LogFactory.getLog(SessionReset.class);
+    private static final String BLANK_PAGE = "about:blank";
+    private static final long FRESH_CHECKSUM = checksum(1, BLANK_PAGE, 0, 0, 0, 0);
+    private static final String CLEAR_STORAGE = "var done = arguments[arguments.length - 1];"
+            + "try { window.localStorage.clear(); } catch (e) {}"
+            + "try { window.sessionStorage.clear(); } catch (e) {}"
+            + "try {"
+            + "  if (!window.indexedDB || !indexedDB.databases) { done(true); return; }"
+            + "  indexedDB.databases().then(function (databases) {"
+            + "    var pending = databases.length;"
+            + "    if (pending === 0) { done(true); return; }"
+            + "    databases.forEach(function (database) {"
+            + "      var request = indexedDB.deleteDatabase(database.name);"
+            + "      request.onsuccess = request.onerror = request.onblocked = function () { if (--pending === 0) { done(true); } };"
+            + "    });"
+            + "  }, function () { done(false); });"
+            + "} catch (e) { done(false); }";
+    private static final String COUNT_STORAGE = "var done = arguments[arguments.length - 1];"
+            + "var count = function (storage) { try { return window[storage].length; } catch (e) { return 0; } };"
+            + "var result = [count('localStorage'), count('sessionStorage'), 0];"
+            + "try {"
+            + "  if (!window.indexedDB || !indexedDB.databases) { done(result); return; }"
+            + "  indexedDB.databases().then(function (databases) { result[2] = databases.length; done(result); }, function () { done(result); });"
+            + "} catch (e) { done(result); }";
+    private static final Map<BROWSER, long[]> resetCosts = new EnumMap<BROWSER, long[]>(BROWSER.class);
+    private static final Map<BROWSER, long[]> launchCosts = new EnumMap<BROWSER, long[]>(BROWSER.class);
+
+    private SessionReset() {
+    }
+
+    /**
+     * To reset a running browser: close extra windows, clear storage and cookies of the open origin and navigate
+     * to about:blank, then verify the session checksum against a fresh one
+     *
+     * @param driver:  the session that will be reset
+     * @param browser: the type of browser of the session, used for the cost report, null if it is not known
+     * @return true if the session is equivalent to a fresh one
+     */
+    public static boolean reset(WebDriver driver, BROWSER browser) {
+        long start = System.currentTimeMillis();
+        boolean verified = false;
+        try {
+            Set<String> windows = driver.getWindowHandles();
+            String firstWindow = windows.iterator().next();
+            for (String window : windows) {
+                if (!window.equals(firstWindow)) {
+                    driver.switchTo().window(window);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(firstWindow);
+
+            int cookies = 0;
+            long[] storage = new long[3];
+            if (driver.getCurrentUrl().startsWith("http")) {
+                JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+                jsExecutor.executeAsyncScript(CLEAR_STORAGE);
+                driver.manage().deleteAllCookies();
+                cookies = driver.manage().getCookies().size();
+                storage = toCounts(jsExecutor.executeAsyncScript(COUNT_STORAGE));
+            }
+
+            driver.get(BLANK_PAGE);
+            long sessionChecksum = checksum(driver.getWindowHandles().size(), driver.getCurrentUrl(), cookies, storage[0], storage[1], storage[2]);
+            verified = sessionChecksum == FRESH_CHECKSUM;
+            if (!verified) {
+                log.warn("|SessionReset| - |reset| - Checksum " + Long.toHexString(sessionChecksum) + " does not match a fresh session "
+                        + Long.toHexString(FRESH_CHECKSUM) + " (cookies: " + cookies + ", storage: " + storage[0] + "/" + storage[1] + "/" + storage[2] + ")");
+            }
+        } catch (Exception e) {
+            log.warn("|SessionReset| - |reset| - Cannot reset browser session: " + e.getMessage());
+        }
+        if (browser != null) {
+            record(resetCosts, browser, System.currentTimeMillis() - start);
+        }
+        return verified;
+    }
+
+    /**
+     * To tell the type of browser of a session from its capabilities, for drivers the pool does not track
+     *
+     * @param driver
+     * @return the browser type, null if the driver does not report a known browser name
+     */
+    public static BROWSER detectBrowser(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return null;
+        }
+        String browserName = ((HasCapabilities) driver).getCapabilities().getBrowserName();
+        if (browserName == null) {
+            return null;
+        }
+        browserName = browserName.toLowerCase();
+        if (browserName.equals("chrome")) {
+            return BROWSER.CHROME;
+        } else if (browserName.equals("firefox")) {
+            return BROWSER.FIREFOX;
+        } else if (browserName.equals("microsoftedge") || browserName.equals("msedge")) {
+            return BROWSER.EDGE;
+        } else if (browserName.equals("safari")) {
+            return BROWSER.SAFARI;
+        } else if (browserName.equals("htmlunit")) {
+            return BROWSER.HTMLUNIT;
+        }
+        return null;
+    }
+
+    /**
+     * To record how long a browser launch took, so reset and relaunch costs can be compared
+     *
+     * @param browser
+     * @param millis
+     */
+    public static void recordLaunch(BROWSER browser, long millis) {
+        record(launchCosts, browser, millis);
+    }
+
+    /**
+     * To compare the average reset cost with the average relaunch cost per browser type
+     *
+     * @return a readable summary per browser type
+     */
+    public static synchronized String getStatistics() {
+        StringBuilder statistics = new StringBuilder();
+        for (BROWSER browser : BROWSER.values()) {
+            long[] reset = resetCosts.get(browser);
+            long[] launch = launchCosts.get(browser);
+            if (reset == null && launch == null) {
+                continue;
+            }
+            if (statistics.length() > 0) {
+                statistics.append("; ");
+            }
+            statistics.append(browser).append(": reset avg ").append(average(reset)).append(" ms (").append(reset == null ? 0 : reset[0])
+                    .append("x), relaunch avg ").append(average(launch)).append(" ms (").append(launch == null ? 0 : launch[0]).append("x)");
+        }
+        return statistics.toString();
+    }
+
+    private static synchronized void record(Map<BROWSER, long[]> costs, BROWSER browser, long millis) {
+        long[] cost = costs.get(browser);
+        if (cost == null) {
+            cost = new long[2];
+            costs.put(browser, cost);
+        }
+        cost[0]++;
+        cost[1] += millis;
+    }
+
+    private static long average(long[] cost) {
+        return cost == null || cost[0] == 0 ? 0 : cost[1] / cost[0];
+    }
+
+    private static long[] toCounts(Object result) {
+        long[] counts = new long[3];
+        if (result instanceof List) {
+            List<?> values = (List<?>) result;
+            for (int i = 0; i < counts.length && i < values.size(); i++) {
+                counts[i] = values.get(i) instanceof Number ? ((Number) values.get(i)).longValue() : 0;
+            }
+        }
+        return counts;
+    }
+
+    private static long checksum(int windows, String url, int cookies, long localStorage, long sessionStorage, long indexedDb) {
+        CRC32 crc = new CRC32();
+        String state = "windows=" + windows + ";url=" + url + ";cookies=" + cookies + ";localStorage=" + localStorage
+                + ";sessionStorage=" + sessionStorage + ";indexedDB=" + indexedDb;
+        crc.update(state.getBytes(Charset.forName("UTF-8")));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,213 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.ISuite;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts for the wall-clock time spent in {@link AbstractPage#sleepInSecond(long)}. Every sleep is attributed to
+ * the running test, its test class and the helper that slept, found from the stack. The totals of a suite are kept
+ * on its {@link ISuite} under {@link #SUITE_SLEEPS}, so each suite of a run is ranked and budgeted on its own in the
+ * report logged by {@link SleepAuditListener} when it finishes. Sleeps outside a test are not attributed.
+ * <p>
+ * A budget per test and per suite can be set with -Dsleep.budget.test.millis and -Dsleep.budget.suite.millis. A test
+ * that goes over its own budget is reported once; in {@link BudgetMode#FAIL} the failure is also recorded in
+ * {@link VerificationFailures} and the listener fails the test. A suite budget is charged only to the one test whose
+ * sleep crossed it, and reported again for that suite when it finishes.
+ */
+public class SleepAudit {
+    public static final String SLEPT_MILLIS = "sleepAudit.sleptMillis";
+    public static final String BUDGET_FAILURE = "sleepAudit.budgetFailure";
+    public static final String SUITE_SLEEPS = "sleepAudit.suiteSleeps";
+    private final Log log = LogFactory.getLog(getClass());
+
+    public enum BudgetMode {
+        WARN, FAIL
+    }
+
+    public static synchronized SleepAudit getAudit() {
+        if (audit == null) {
+            audit = new SleepAudit();
+        }
+        return audit;
+    }
+
+    private SleepAudit() {
+    }
+
+    /**
+     * To account for one sleep of the current thread
+     *
+     * @param millis: the time actually slept
+     */
+    public void record(long millis) {
+        ITestResult test = Reporter.getCurrentTestResult();
+        if (test == null || test.getTestContext() == null) {
+            return;
+        }
+        SuiteSleeps sleeps = getSuiteSleeps(test.getTestContext().getSuite());
+        String helper = findHelper(Thread.currentThread().getStackTrace());
+        String testClass = test.getTestClass().getName();
+        String testName = testClass + "." + test.getMethod().getMethodName();
+        long totalMillis = sleeps.total.add(millis);
+        getTally(sleeps.helpers, helper).add(millis);
+        getTally(sleeps.testClasses, testClass).add(millis);
+        getTally(sleeps.tests, testName).add(millis);
+        Object slept = test.getAttribute(SLEPT_MILLIS);
+        long testMillis = (slept instanceof Long ? (Long) slept : 0) + millis;
+        test.setAttribute(SLEPT_MILLIS, testMillis);
+        log.debug("|SleepAudit| - |record|: " + helper + " slept " + millis + " ms in " + testName);
+        if (GlobalConstants.SLEEP_BUDGET_TEST_MILLIS > 0 && testMillis > GlobalConstants.SLEEP_BUDGET_TEST_MILLIS) {
+            overBudget(test, testName + " slept " + testMillis + " ms, over the test sleep budget of " + GlobalConstants.SLEEP_BUDGET_TEST_MILLIS + " ms (last sleep in " + helper + ")");
+        } else if (isOverSuiteBudget(totalMillis) && sleeps.budgetCrossed.compareAndSet(false, true)) {
+            overBudget(test, "Suite " + test.getTestContext().getSuite().getName() + " slept " + totalMillis + " ms, over the suite sleep budget of " + GlobalConstants.SLEEP_BUDGET_SUITE_MILLIS + " ms (crossed by " + helper + " of " + testName + ")");
+        }
+    }
+
+    /**
+     * To get the total time slept by a suite so far
+     *
+     * @param suite
+     * @return the sum of the sleeps of its tests in milliseconds
+     */
+    public long getTotalMillis(ISuite suite) {
+        return getSuiteSleeps(suite).total.millis.get();
+    }
+
+    /**
+     * To check a suite slept longer than its budget
+     *
+     * @param suite
+     * @return true if a suite budget is set and the sleeps of its tests so far exceed it
+     */
+    public boolean isOverSuiteBudget(ISuite suite) {
+        return isOverSuiteBudget(getTotalMillis(suite));
+    }
+
+    /**
+     * To rank the helpers, test classes and tests of a suite that slept the most
+     *
+     * @param suite
+     * @param limit: how many entries to show per ranking
+     * @return a readable multi-line report
+     */
+    public String getReport(ISuite suite, int limit) {
+        SuiteSleeps sleeps = getSuiteSleeps(suite);
+        Tally total = sleeps.total;
+        StringBuilder report = new StringBuilder("total " + total.millis.get() + " ms in " + total.count.get() + " sleeps");
+        if (GlobalConstants.SLEEP_BUDGET_SUITE_MILLIS > 0) {
+            report.append(", suite budget ").append(GlobalConstants.SLEEP_BUDGET_SUITE_MILLIS).append(" ms");
+        }
+        appendRanking(report, "helpers", sleeps.helpers, limit);
+        appendRanking(report, "test classes", sleeps.testClasses, limit);
+        appendRanking(report, "tests", sleeps.tests, limit);
+        return report.toString();
+    }
+
+    private static SuiteSleeps getSuiteSleeps(ISuite suite) {
+        synchronized (suite) {
+            Object sleeps = suite.getAttribute(SUITE_SLEEPS);
+            if (sleeps instanceof SuiteSleeps) {
+                return (SuiteSleeps) sleeps;
+            }
+            SuiteSleeps created = new SuiteSleeps();
+            suite.setAttribute(SUITE_SLEEPS, created);
+            return created;
+        }
+    }
+
+    private void overBudget(ITestResult test, String message) {
+        if (test.getAttribute(BUDGET_FAILURE) != null) {
+            return;
+        }
+        AssertionError error = new AssertionError(message);
+        test.setAttribute(BUDGET_FAILURE, error);
+        Reporter.log(message);
+        if (GlobalConstants.SLEEP_BUDGET_MODE == BudgetMode.FAIL) {
+            log.error("|SleepAudit| - |overBudget| - " + message);
+            VerificationFailures.getFailures().addFailureForTest(test, error);
+        } else {
+            log.warn("|SleepAudit| - |overBudget| - " + message);
+        }
+    }
+
+    private static boolean isOverSuiteBudget(long totalMillis) {
+        return GlobalConstants.SLEEP_BUDGET_SUITE_MILLIS > 0 && totalMillis > GlobalConstants.SLEEP_BUDGET_SUITE_MILLIS;
+    }
+
+    private static void appendRanking(StringBuilder report, String title, Map<String, Tally> tallies, int limit) {
+        List<Map.Entry<String, Tally>> entries = new ArrayList<Map.Entry<String, Tally>>(tallies.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Tally>>() {
+            @Override
+            public int compare(Map.Entry<String, Tally> first, Map.Entry<String, Tally> second) {
+                return Long.compare(second.getValue().millis.get(), first.getValue().millis.get());
+            }
+        });
+        report.append(System.lineSeparator()).append("  worst ").append(title).append(":");
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            Tally tally = entries.get(i).getValue();
+            report.append(System.lineSeparator()).append("    ").append(i + 1).append(". ").append(entries.get(i).getKey())
+                    .append(" ").append(tally.millis.get()).append(" ms in ").append(tally.count.get()).append(" sleeps");
+        }
+    }
+
+    private static String findHelper(StackTraceElement[] stack) {
+        for (int i = 0; i < stack.length - 1; i++) {
+            if ("sleepInSecond".equals(stack[i].getMethodName())) {
+                StackTraceElement caller = stack[i + 1];
+                return caller.getClassName().substring(caller.getClassName().lastIndexOf('.') + 1) + "." + caller.getMethodName();
+            }
+        }
+        return "(unknown)";
+    }
+
+    private static Tally getTally(ConcurrentMap<String, Tally> tallies, String key) {
+        Tally tally = tallies.get(key);
+        if (tally == null) {
+            Tally created = new Tally();
+            tally = tallies.putIfAbsent(key, created);
+            if (tally == null) {
+                tally = created;
+            }
+        }
+        return tally;
+    }
+
+    /**
+     * Sleeps of the tests of one suite, ranked per helper, test class and test
+     */
+    private static class SuiteSleeps {
+        private final ConcurrentMap<String, Tally> helpers = new ConcurrentHashMap<String, Tally>();
+        private final ConcurrentMap<String, Tally> testClasses = new ConcurrentHashMap<String, Tally>();
+        private final ConcurrentMap<String, Tally> tests = new ConcurrentHashMap<String, Tally>();
+        private final Tally total = new Tally();
+        private final AtomicBoolean budgetCrossed = new AtomicBoolean();
+    }
+
+    /**
+     * Time slept and number of sleeps of one helper, test class or test
+     */
+    private static class Tally {
+        private final AtomicLong millis = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+
+        private long add(long slept) {
+            count.incrementAndGet();
+            return millis.addAndGet(slept);
+        }
+    }
+
+    private static SleepAudit audit;
+}
@@ -0,0 +1,62 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Reports the sleeps of every test and of each suite collected by {@link SleepAudit}, and fails a passed test that
+ * went over its sleep budget, or crossed the budget of its suite, when -Dsleep.budget.mode=FAIL. It is registered for
+ * every suite through META-INF/services/org.testng.ITestNGListener.
+ */
+public class SleepAuditListener implements IInvokedMethodListener, ISuiteListener {
+    private final Log log = LogFactory.getLog(getClass());
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        Object slept = testResult.getAttribute(SleepAudit.SLEPT_MILLIS);
+        if (slept != null) {
+            Reporter.log("Slept " + slept + " ms in sleepInSecond");
+        }
+        Object failure = testResult.getAttribute(SleepAudit.BUDGET_FAILURE);
+        if (failure instanceof Throwable && GlobalConstants.SLEEP_BUDGET_MODE == SleepAudit.BudgetMode.FAIL
+                && testResult.getStatus() == ITestResult.SUCCESS) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable((Throwable) failure);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        SleepAudit audit = SleepAudit.getAudit();
+        long totalMillis = audit.getTotalMillis(suite);
+        if (totalMillis > 0) {
+            log.info("|SleepAuditListener| - |onFinish|: Sleeps of " + suite.getName() + ": " + audit.getReport(suite, GlobalConstants.SLEEP_REPORT_SIZE));
+        }
+        if (audit.isOverSuiteBudget(suite)) {
+            String message = "Suite " + suite.getName() + " slept " + totalMillis + " ms, over the suite sleep budget of "
+                    + GlobalConstants.SLEEP_BUDGET_SUITE_MILLIS + " ms";
+            if (GlobalConstants.SLEEP_BUDGET_MODE == SleepAudit.BudgetMode.FAIL) {
+                log.error("|SleepAuditListener| - |onFinish| - " + message);
+            } else {
+                log.warn("|SleepAuditListener| - |onFinish| - " + message);
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package common;
+
+import java.text.Collator;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Checks the order of a list of texts in a single linear pass and reports the first pair that breaks it, instead
+ * of sorting a copy and comparing whole lists. Numbers, currency amounts and dates are parsed into a primitive
+ * array first; texts are compared with a pluggable {@link Comparator}, e.g. a locale-aware {@link Collator}.
+ * Equal neighbours never break the order.
+ */
+public class SortVerifier {
+    public static final Comparator<String> NATURAL = new Comparator<String>() {
+        @Override
+        public int compare(String first, String second) {
+            return first.compareTo(second);
+        }
+    };
+    public static final NumericParser NUMBER = number(Locale.US);
+    public static final NumericParser CURRENCY = currency(Locale.US);
+
+    public enum Order {
+        ASCENDING, DESCENDING
+    }
+
+    /**
+     * Turns a text into a number that can be ordered, e.g. an amount or the epoch millis of a date
+     */
+    public interface NumericParser {
+        double parse(String text) throws ParseException;
+    }
+
+    private SortVerifier() {
+    }
+
+    /**
+     * To compare texts with the collation rules of a locale, e.g. accents and case are ordered like a person of
+     * that locale expects
+     *
+     * @param locale
+     * @return a comparator of texts
+     */
+    public static Comparator<String> collator(Locale locale) {
+        final Collator collator = Collator.getInstance(locale);
+        return new Comparator<String>() {
+            @Override
+            public int compare(String first, String second) {
+                return collator.compare(first, second);
+            }
+        };
+    }
+
+    /**
+     * To parse plain numbers written with the grouping and decimal separators of a locale
+     *
+     * @param locale
+     * @return a parser of numbers
+     */
+    public static NumericParser number(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        final char grouping = symbols.getGroupingSeparator();
+        final char decimal = symbols.getDecimalSeparator();
+        return new NumericParser() {
+            @Override
+            public double parse(String text) throws ParseException {
+                return parseDecimal(text, grouping, decimal, null);
+            }
+        };
+    }
+
+    /**
+     * To parse currency amounts of a locale, ignoring currency symbols and one currency code; an amount in
+     * parentheses is negative, any other text around the amount makes it unparsable
+     *
+     * @param locale
+     * @return a parser of currency amounts
+     */
+    public static NumericParser currency(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        final char grouping = symbols.getGroupingSeparator();
+        final char decimal = symbols.getMonetaryDecimalSeparator();
+        final String currencySymbol = symbols.getCurrencySymbol();
+        return new NumericParser() {
+            @Override
+            public double parse(String text) throws ParseException {
+                return parseDecimal(text, grouping, decimal, currencySymbol);
+            }
+        };
+    }
+
+    /**
+     * To parse dates into epoch millis. Dots are removed before parsing, so "Jan. 05 2021" matches "MMM dd yyyy"
+     *
+     * @param pattern: the {@link SimpleDateFormat} pattern of the dates
+     * @param locale:  the locale of month and day names
+     * @return a parser of dates, safe to share between threads
+     */
+    public static NumericParser date(final String pattern, final Locale locale) {
+        final ThreadLocal<SimpleDateFormat> formats = new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+                format.setLenient(false);
+                return format;
+            }
+        };
+        return new NumericParser() {
+            @Override
+            public double parse(String text) throws ParseException {
+                return formats.get().parse(text.replace(".", "").trim()).getTime();
+            }
+        };
+    }
+
+    /**
+     * To check texts are in order using a comparator
+     *
+     * @param texts
+     * @param comparator: the order of two texts
+     * @param order:      the expected direction
+     * @return the result with the first violating index, if any
+     */
+    public static Result verify(List<String> texts, Comparator<String> comparator, Order order) {
+        int direction = order == Order.ASCENDING ? 1 : -1;
+        for (int i = 1; i < texts.size(); i++) {
+            if (direction * comparator.compare(texts.get(i - 1), texts.get(i)) > 0) {
+                return Result.violation(texts, i, order);
+            }
+        }
+        return Result.sorted(texts.size(), order);
+    }
+
+    /**
+     * To check texts are in order after parsing them into numbers
+     *
+     * @param texts
+     * @param parser: turns each text into a number
+     * @param order:  the expected direction
+     * @return the result with the first violating or unparsable index, if any
+     */
+    public static Result verify(List<String> texts, NumericParser parser, Order order) {
+        double[] values = new double[texts.size()];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                values[i] = parser.parse(texts.get(i));
+            } catch (Exception e) {
+                return Result.unparsable(texts, i, order, e);
+            }
+        }
+        boolean ascending = order == Order.ASCENDING;
+        for (int i = 1; i < values.length; i++) {
+            if (ascending ? values[i - 1] > values[i] : values[i - 1] < values[i]) {
+                return Result.violation(texts, i, order);
+            }
+        }
+        return Result.sorted(values.length, order);
+    }
+
+    /**
+     * To parse a number, reading a minus sign only before the first digit and, for currency amounts, an opening
+     * parenthesis before the first digit that is closed after the amount. Letters are only accepted in currency
+     * amounts, as one currency code or symbol, e.g. "USD", "CHF" or the "US" of "US$"
+     *
+     * @param text
+     * @param grouping:       the grouping separator of the locale
+     * @param decimal:        the decimal separator of the locale
+     * @param currencySymbol: the currency symbol of the locale, null to parse plain numbers
+     * @return the number
+     * @throws ParseException if the text is not exactly one number
+     */
+    private static double parseDecimal(String text, char grouping, char decimal, String currencySymbol) throws ParseException {
+        boolean currency = currencySymbol != null;
+        StringBuilder digits = new StringBuilder(text.length());
+        boolean negative = false;
+        boolean parenthesis = false;
+        boolean closed = false;
+        boolean code = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (closed && !Character.isWhitespace(c) && c != '\u00a0' && c != '\u202f') {
+                throw new ParseException("Unexpected '" + c + "' after the amount: " + text, i);
+            }
+            if (Character.isDigit(c)) {
+                digits.append(c);
+            } else if (c == decimal) {
+                digits.append('.');
+            } else if ((c == '-' || c == '\u2212') && digits.length() == 0 && !negative) {
+                negative = true;
+            } else if (currency && c == '(' && digits.length() == 0 && !negative) {
+                negative = true;
+                parenthesis = true;
+            } else if (currency && c == ')' && parenthesis && digits.length() > 0) {
+                closed = true;
+            } else if (currency && Character.isLetter(c) && !code) {
+                int end = i;
+                while (end < text.length() && Character.isLetter(text.charAt(end))) {
+                    end++;
+                }
+                if (!isCurrencyCode(text, i, end, currencySymbol)) {
+                    throw new ParseException("Unexpected '" + text.substring(i, end) + "' in amount: " + text, i);
+                }
+                code = true;
+                i = end - 1;
+            } else if (c != grouping && !Character.isWhitespace(c) && c != '\u00a0' && c != '\u202f'
+                    && !(currency && Character.getType(c) == Character.CURRENCY_SYMBOL)) {
+                throw new ParseException("Unexpected '" + c + "' in number: " + text, i);
+            }
+        }
+        if (digits.length() == 0) {
+            throw new ParseException("No number in: " + text, 0);
+        }
+        if (parenthesis && !closed) {
+            throw new ParseException("Unclosed parenthesis in amount: " + text, text.length());
+        }
+        try {
+            double value = Double.parseDouble(digits.toString());
+            return negative ? -value : value;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number: " + text, 0);
+        }
+    }
+
+    private static boolean isCurrencyCode(String text, int start, int end, String currencySymbol) {
+        String letters = text.substring(start, end);
+        if (letters.equals(currencySymbol)) {
+            return true;
+        }
+        if (!letters.equals(letters.toUpperCase(Locale.ROOT)) || letters.length() > 3) {
+            return false;
+        }
+        if (letters.length() == 3) {
+            try {
+                Currency.getInstance(letters);
+                return true;
+            } catch (IllegalArgumentException e) {
+                // not an ISO 4217 code, it may still prefix a symbol
+            }
+        }
+        boolean symbolBefore = start > 0 && Character.getType(text.charAt(start - 1)) == Character.CURRENCY_SYMBOL;
+        boolean symbolAfter = end < text.length() && Character.getType(text.charAt(end)) == Character.CURRENCY_SYMBOL;
+        return symbolBefore || symbolAfter;
+    }
+
+    /**
+     * The outcome of a sort check
+     */
+    public static class Result {
+        private final boolean sorted;
+        private final boolean parsable;
+        private final int size;
+        private final int violationIndex;
+        private final Order order;
+        private final String message;
+
+        private Result(boolean sorted, boolean parsable, int size, int violationIndex, Order order, String message) {
+            this.sorted = sorted;
+            this.parsable = parsable;
+            this.size = size;
+            this.violationIndex = violationIndex;
+            this.order = order;
+            this.message = message;
+        }
+
+        private static Result sorted(int size, Order order) {
+            return new Result(true, true, size, -1, order, size + " values are sorted " + order.name().toLowerCase());
+        }
+
+        private static Result violation(List<String> texts, int index, Order order) {
+            return new Result(false, true, texts.size(), index, order, "Values are not sorted " + order.name().toLowerCase() + " at index "
+                    + index + ": '" + texts.get(index - 1) + "' is followed by '" + texts.get(index) + "'");
+        }
+
+        private static Result unparsable(List<String> texts, int index, Order order, Exception e) {
+            return new Result(false, false, texts.size(), index, order, "Value at index " + index + " cannot be parsed: '" + texts.get(index)
+                    + "' (" + e.getMessage() + ")");
+        }
+
+        public boolean isSorted() {
+            return sorted;
+        }
+
+        /**
+         * To check every value could be parsed, so the result says something about the order
+         *
+         * @return false if a value could not be parsed into a number
+         */
+        public boolean isParsable() {
+            return parsable;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * To get where the order breaks
+         *
+         * @return the index of the first value that is out of order or cannot be parsed, -1 if the values are sorted
+         */
+        public int getViolationIndex() {
+            return violationIndex;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory copy of an HTML table, captured with one script call and stored column by column. Lookups, filters
+ * and row checks run against the copy; each column builds a hash index of its values on the first exact lookup.
+ * <p>
+ * The capture installs a MutationObserver on the table, so {@link #isStale(WebDriver)} can tell with one tiny
+ * script call whether the table changed since the snapshot was taken. Headers come from the last row of the
+ * table head, or from the first row when it only has header cells; without headers, columns are named by their
+ * 1-based position. Cells are read in DOM order, colspan is not expanded, and a cell that is not rendered has an
+ * empty text like WebDriver getText.
+ */
+public class TableSnapshot {
+    private static final Log log = LogFactory.getLog(TableSnapshot.class);
+    private static final String FIND_TABLE = "var table = document.evaluate(arguments[0], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;";
+    private static final String CAPTURE_TABLE = FIND_TABLE
+            + "if (!table) { return null; }"
+            + "if (!table.__snapshotObserver) {"
+            + "  table.__snapshotVersion = 0;"
+            + "  table.__snapshotObserver = new MutationObserver(function () { table.__snapshotVersion++; });"
+            + "  table.__snapshotObserver.observe(table, {childList: true, subtree: true, characterData: true, attributes: true});"
+            + "}"
+            + "var text = function (cell) {"
+            + "  return cell.getClientRects().length === 0 ? '' : (cell.innerText || '').replace(/\\u00a0/g, ' ').trim();"
+            + "};"
+            + "var texts = function (row) { var values = []; for (var i = 0; i < row.cells.length; i++) { values.push(text(row.cells[i])); } return values; };"
+            + "var rows = Array.prototype.slice.call(table.rows);"
+            + "var headers = [];"
+            + "if (table.tHead && table.tHead.rows.length > 0) {"
+            + "  headers = texts(table.tHead.rows[table.tHead.rows.length - 1]);"
+            + "  rows = rows.filter(function (row) { return row.parentNode !== table.tHead; });"
+            + "} else if (rows.length > 0 && rows[0].querySelector('td') === null) {"
+            + "  headers = texts(rows.shift());"
+            + "}"
+            + "rows = rows.filter(function (row) { return !table.tFoot || row.parentNode !== table.tFoot; });"
+            + "return {version: table.__snapshotVersion, headers: headers, rows: rows.map(texts)};";
+    private static final String CHECK_VERSION = FIND_TABLE
+            + "return !!table && !!table.__snapshotObserver && table.__snapshotVersion === arguments[1];";
+    private static final ThreadLocal<Map<String, TableSnapshot>> snapshots = new ThreadLocal<Map<String, TableSnapshot>>() {
+        @Override
+        protected Map<String, TableSnapshot> initialValue() {
+            return new HashMap<String, TableSnapshot>();
+        }
+    };
+
+    private final WebDriver driver;
+    private final String tableXpath;
+    private final long version;
+    private final String[] headers;
+    private final String[][] columns;
+    private final int rowCount;
+    private final Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
+    private final List<Map<String, int[]>> valueIndexes;
+
+    private TableSnapshot(WebDriver driver, String tableXpath, long version, List<String> headers, List<List<String>> rows) {
+        this.driver = driver;
+        this.tableXpath = tableXpath;
+        this.version = version;
+        int columnCount = headers.size();
+        for (List<String> row : rows) {
+            columnCount = Math.max(columnCount, row.size());
+        }
+        this.headers = new String[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            this.headers[column] = column < headers.size() && !headers.get(column).isEmpty() ? headers.get(column) : String.valueOf(column + 1);
+            if (!columnIndexes.containsKey(this.headers[column])) {
+                columnIndexes.put(this.headers[column], column);
+            }
+        }
+        this.rowCount = rows.size();
+        this.columns = new String[columnCount][rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            List<String> cells = rows.get(row);
+            for (int column = 0; column < columnCount; column++) {
+                columns[column][row] = column < cells.size() ? cells.get(column) : "";
+            }
+        }
+        this.valueIndexes = new ArrayList<Map<String, int[]>>(Collections.<Map<String, int[]>>nCopies(columnCount, null));
+    }
+
+    /**
+     * To capture a table with one script call
+     *
+     * @param driver
+     * @param tableXpath: the xpath expression of the table element
+     * @return the snapshot of the table
+     * @throws IllegalArgumentException if no table matches the xpath
+     */
+    public static TableSnapshot capture(WebDriver driver, String tableXpath) {
+        Object result = ((JavascriptExecutor) driver).executeScript(CAPTURE_TABLE, tableXpath);
+        if (!(result instanceof Map)) {
+            throw new IllegalArgumentException("No table matches " + tableXpath);
+        }
+        Map<?, ?> table = (Map<?, ?>) result;
+        List<List<String>> rows = new ArrayList<List<String>>();
+        for (Object row : (List<?>) table.get("rows")) {
+            rows.add(toTexts(row));
+        }
+        TableSnapshot snapshot = new TableSnapshot(driver, tableXpath, ((Number) table.get("version")).longValue(), toTexts(table.get("headers")), rows);
+        snapshots.get().put(tableXpath, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * To get the snapshot of a table taken earlier on this thread, capturing it again when the table changed
+     *
+     * @param driver
+     * @param tableXpath: the xpath expression of the table element
+     * @return an up-to-date snapshot of the table
+     */
+    public static TableSnapshot get(WebDriver driver, String tableXpath) {
+        TableSnapshot snapshot = snapshots.get().get(tableXpath);
+        if (snapshot != null && snapshot.driver == driver && !snapshot.isStale(driver)) {
+            return snapshot;
+        }
+        return capture(driver, tableXpath);
+    }
+
+    /**
+     * To forget the snapshots this thread took with a driver, e.g. when its browser is given back to the pool, so
+     * they do not keep the driver and the copied tables alive
+     *
+     * @param driver
+     */
+    public static void clear(WebDriver driver) {
+        Map<String, TableSnapshot> taken = snapshots.get();
+        for (Iterator<TableSnapshot> iterator = taken.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().driver == driver) {
+                iterator.remove();
+            }
+        }
+        if (taken.isEmpty()) {
+            snapshots.remove();
+        }
+    }
+
+    /**
+     * To check the table changed, or was removed, since the snapshot was taken
+     *
+     * @param driver
+     * @return true if the snapshot no longer matches the page
+     */
+    public boolean isStale(WebDriver driver) {
+        try {
+            return !Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(CHECK_VERSION, tableXpath, version));
+        } catch (Exception e) {
+            log.debug("|TableSnapshot| - |isStale|: Cannot check table " + tableXpath + ": " + e.getMessage());
+            return true;
+        }
+    }
+
+    public List<String> getHeaders() {
+        return Collections.unmodifiableList(Arrays.asList(headers));
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return headers.length;
+    }
+
+    /**
+     * To find the position of a column
+     *
+     * @param columnName: the header text of the column, or its 1-based position
+     * @return the 0-based index of the column, -1 if the table has no such column
+     */
+    public int getColumnIndex(String columnName) {
+        Integer index = columnIndexes.get(columnName);
+        if (index != null) {
+            return index;
+        }
+        try {
+            int position = Integer.parseInt(columnName.trim());
+            return position >= 1 && position <= headers.length ? position - 1 : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * To get all texts of a column
+     *
+     * @param columnName: the header text of the column, or its 1-based position
+     * @return the texts of the column from the first to the last row
+     */
+    public List<String> getColumn(String columnName) {
+        return Collections.unmodifiableList(Arrays.asList(columns[requireColumn(columnName)]));
+    }
+
+    public String getCell(int row, String columnName) {
+        return columns[requireColumn(columnName)][row];
+    }
+
+    /**
+     * To get all texts of a row
+     *
+     * @param row: the 0-based index of the row
+     * @return the texts of the row by header, in column order
+     */
+    public Map<String, String> getRow(int row) {
+        Map<String, String> cells = new LinkedHashMap<String, String>();
+        for (int column = 0; column < headers.length; column++) {
+            cells.put(headers[column], columns[column][row]);
+        }
+        return cells;
+    }
+
+    /**
+     * To find the rows whose cell in a column equals a value, using the hash index of the column
+     *
+     * @param columnName: the header text of the column, or its 1-based position
+     * @param value:      the exact text of the cell
+     * @return the 0-based indexes of the matching rows, in row order
+     */
+    public int[] findRows(String columnName, String value) {
+        int[] rows = getValueIndex(requireColumn(columnName)).get(value);
+        return rows == null ? new int[0] : rows.clone();
+    }
+
+    /**
+     * To find the rows whose cell in a column contains a text
+     *
+     * @param columnName: the header text of the column, or its 1-based position
+     * @param text:       the text the cell must contain
+     * @return the 0-based indexes of the matching rows, in row order
+     */
+    public int[] filterRows(String columnName, String text) {
+        String[] cells = columns[requireColumn(columnName)];
+        int[] rows = new int[cells.length];
+        int count = 0;
+        for (int row = 0; row < cells.length; row++) {
+            if (cells[row].contains(text)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * To find the first row whose cells equal all expected values
+     *
+     * @param expectedCells: the exact text of the cell by header text or 1-based position
+     * @return the 0-based index of the first matching row, -1 if no row matches
+     */
+    public int findRow(Map<String, String> expectedCells) {
+        int[] candidates = null;
+        for (Map.Entry<String, String> cell : expectedCells.entrySet()) {
+            int[] rows = getValueIndex(requireColumn(cell.getKey())).get(cell.getValue());
+            if (rows == null) {
+                return -1;
+            }
+            if (candidates == null || rows.length < candidates.length) {
+                candidates = rows;
+            }
+        }
+        if (candidates == null) {
+            return rowCount > 0 ? 0 : -1;
+        }
+        for (int row : candidates) {
+            if (matches(row, expectedCells)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * To check a column contains a value
+     *
+     * @param columnName: the header text of the column, or its 1-based position
+     * @param text:       the text a cell must contain
+     * @return true if at least one cell of the column contains the text
+     */
+    public boolean containsText(String columnName, String text) {
+        int column = getColumnIndex(columnName);
+        if (column < 0) {
+            return false;
+        }
+        if (getValueIndex(column).containsKey(text)) {
+            return true;
+        }
+        for (String cell : columns[column]) {
+            if (cell.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(int row, Map<String, String> expectedCells) {
+        for (Map.Entry<String, String> cell : expectedCells.entrySet()) {
+            if (!columns[requireColumn(cell.getKey())][row].equals(cell.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int requireColumn(String columnName) {
+        int column = getColumnIndex(columnName);
+        if (column < 0) {
+            throw new IllegalArgumentException("Table " + tableXpath + " has no column '" + columnName + "', columns: " + getHeaders());
+        }
+        return column;
+    }
+
+    private synchronized Map<String, int[]> getValueIndex(int column) {
+        if (valueIndexes.get(column) == null) {
+            Map<String, List<Integer>> positions = new HashMap<String, List<Integer>>();
+            for (int row = 0; row < rowCount; row++) {
+                List<Integer> rows = positions.get(columns[column][row]);
+                if (rows == null) {
+                    rows = new ArrayList<Integer>(1);
+                    positions.put(columns[column][row], rows);
+                }
+                rows.add(row);
+            }
+            Map<String, int[]> index = new HashMap<String, int[]>(positions.size() * 2);
+            for (Map.Entry<String, List<Integer>> position : positions.entrySet()) {
+                int[] rows = new int[position.getValue().size()];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = position.getValue().get(i);
+                }
+                index.put(position.getKey(), rows);
+            }
+            valueIndexes.set(column, index);
+        }
+        return valueIndexes.get(column);
+    }
+
+    private static List<String> toTexts(Object values) {
+        List<String> texts = new ArrayList<String>();
+        if (values instanceof List) {
+            for (Object value : (List<?>) values) {
+                texts.add(value == null ? "" : value.toString());
+            }
+        }
+        return texts;
+    }
+}
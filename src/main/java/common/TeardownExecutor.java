@@ -0,0 +1,141 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quits finished browser sessions in the background so the test thread can move on immediately. A bounded number
+ * of workers run the quits, and a session that does not quit before its deadline has its processes force killed.
+ */
+public class TeardownExecutor {
+    private final Log log = LogFactory.getLog(getClass());
+    private final ExecutorService workers;
+    private final ScheduledExecutorService watchdog;
+    private final AtomicInteger submittedSessions = new AtomicInteger();
+    private final AtomicInteger completedSessions = new AtomicInteger();
+    private final AtomicInteger forceKilledSessions = new AtomicInteger();
+    private final AtomicLong handOffNanos = new AtomicLong();
+    private final AtomicLong quitNanos = new AtomicLong();
+
+    public static synchronized TeardownExecutor getExecutor() {
+        if (executor == null) {
+            executor = new TeardownExecutor(GlobalConstants.TEARDOWN_THREADS);
+        }
+        return executor;
+    }
+
+    private TeardownExecutor(int threads) {
+        workers = Executors.newFixedThreadPool(threads, daemonThreads("browser-teardown"));
+        ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1, daemonThreads("browser-teardown-watchdog"));
+        deadlines.setRemoveOnCancelPolicy(true);
+        watchdog = deadlines;
+    }
+
+    /**
+     * To hand a finished session to the background quit pipeline. The deadline of a session starts when a worker
+     * begins to quit it, so sessions waiting in the queue behind slow quits are not force killed
+     *
+     * @param driver: the session that will be quit
+     */
+    public void submit(WebDriver driver) {
+        long start = System.nanoTime();
+        submittedSessions.incrementAndGet();
+        QuitTask task = new QuitTask(driver);
+        task.future = new FutureTask<Void>(task, null);
+        workers.execute(task.future);
+        handOffNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * To wait until every submitted session has been quit or force killed
+     *
+     * @param timeoutMillis: the longest time to wait
+     */
+    public void awaitTermination(long timeoutMillis) {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("|TeardownExecutor| - |awaitTermination| - Sessions are still quitting after " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * To get teardown counters and the wall-clock time saved on test threads
+     *
+     * @return a readable summary of the counters
+     */
+    public String getStatistics() {
+        long handOffMillis = TimeUnit.NANOSECONDS.toMillis(handOffNanos.get());
+        long quitMillis = TimeUnit.NANOSECONDS.toMillis(quitNanos.get());
+        return "submitted: " + submittedSessions.get() + ", quit: " + completedSessions.get()
+                + ", force killed: " + forceKilledSessions.get() + ", background quit time: " + quitMillis + " ms"
+                + ", test thread hand-off time: " + handOffMillis + " ms, saved: " + Math.max(0, quitMillis - handOffMillis) + " ms";
+    }
+
+    /**
+     * Quits one session and force kills its processes if the quit is still running at the deadline
+     */
+    private class QuitTask implements Runnable {
+        private final WebDriver driver;
+        private FutureTask<Void> future;
+
+        private QuitTask(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        @Override
+        public void run() {
+            long quitStart = System.nanoTime();
+            ScheduledFuture<?> deadline = watchdog.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!future.isDone()) {
+                        log.warn("|TeardownExecutor| - |run| - Session did not quit within "
+                                + GlobalConstants.TEARDOWN_DEADLINE_MILLIS + " ms, force kill its processes");
+                        forceKilledSessions.incrementAndGet();
+                        future.cancel(true);
+                        ProcessReaper.getReaper().forceKill(driver);
+                    }
+                }
+            }, GlobalConstants.TEARDOWN_DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+            try {
+                ProcessReaper.getReaper().quit(driver);
+                quitNanos.addAndGet(System.nanoTime() - quitStart);
+                completedSessions.incrementAndGet();
+            } finally {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private static TeardownExecutor executor;
+}
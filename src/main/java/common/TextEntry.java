@@ -0,0 +1,124 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enters text in a text box either by typing it key by key through WebDriver or by pasting it: the value is set
+ * with the native value setter of the element, so frameworks that track it see the change, then input and change
+ * events are fired. Pasting a long text takes one script call instead of one key event per character.
+ * <p>
+ * In {@link Mode#AUTO} texts of at least {@link GlobalConstants#TEXT_ENTRY_PASTE_THRESHOLD} characters are pasted.
+ * A field is always typed into when it is not a plain text input or textarea, is read-only, has a maxlength the
+ * text exceeds, has inline onkeydown, onkeypress or onkeyup handlers, or carries a data-type-keys attribute; key
+ * handlers added with addEventListener cannot be seen, so such fields need the attribute or {@link Mode#TYPE}.
+ * WebDriver keys in the text, e.g. a trailing Keys.ENTER or a chord, are never pasted: only the plain text before
+ * the first key is pasted and the rest is typed after it.
+ */
+public class TextEntry {
+    static final String SET_VALUE_FUNCTION = "var setValue = function (element, value) {"
+            + "  var prototype = element instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;"
+            + "  var descriptor = Object.getOwnPropertyDescriptor(prototype, 'value');"
+            + "  if (descriptor && descriptor.set) { descriptor.set.call(element, value); } else { element.value = value; }"
+            + "};";
+    private static final String PASTE_TEXT = "var element = arguments[0], text = arguments[1];"
+            + SET_VALUE_FUNCTION
+            + "var textTypes = ['text', 'search', 'email', 'url', 'tel', 'password'];"
+            + "if (!(element instanceof HTMLTextAreaElement || (element instanceof HTMLInputElement && textTypes.indexOf(element.type) >= 0))) { return 'not a text field'; }"
+            + "if (element.readOnly || element.disabled) { return 'read-only'; }"
+            + "if (element.maxLength >= 0 && text.length > element.maxLength) { return 'longer than maxlength'; }"
+            + "if (element.hasAttribute('data-type-keys')) { return 'asks for typing'; }"
+            + "if (element.hasAttribute('onkeydown') || element.hasAttribute('onkeypress') || element.hasAttribute('onkeyup')) { return 'has key handlers'; }"
+            + "element.focus();"
+            + "setValue(element, text);"
+            + "element.dispatchEvent(typeof InputEvent === 'function'"
+            + "  ? new InputEvent('input', {bubbles: true, inputType: 'insertFromPaste', data: text})"
+            + "  : new Event('input', {bubbles: true}));"
+            + "element.dispatchEvent(new Event('change', {bubbles: true}));"
+            + "return null;";
+    private static final Log log = LogFactory.getLog(TextEntry.class);
+    private static final AtomicLong pasted = new AtomicLong();
+    private static final AtomicLong pastedCharacters = new AtomicLong();
+    private static final AtomicLong typed = new AtomicLong();
+    private static final AtomicLong fallbacks = new AtomicLong();
+
+    public enum Mode {
+        TYPE, PASTE, AUTO
+    }
+
+    private TextEntry() {
+    }
+
+    /**
+     * To replace the content of a text box in the mode set for the run with -Dtext.entry.mode
+     *
+     * @param driver
+     * @param element: the text box
+     * @param text
+     */
+    public static void enter(WebDriver driver, WebElement element, String text) {
+        enter(driver, element, text, GlobalConstants.TEXT_ENTRY_MODE);
+    }
+
+    /**
+     * To replace the content of a text box
+     *
+     * @param driver
+     * @param element: the text box
+     * @param text
+     * @param mode:    TYPE for key events, PASTE to set the value, AUTO to paste long texts only
+     */
+    public static void enter(WebDriver driver, WebElement element, String text, Mode mode) {
+        int firstKey = indexOfKey(text);
+        String plainText = firstKey < 0 ? text : text.substring(0, firstKey);
+        boolean paste = mode == Mode.PASTE || (mode == Mode.AUTO && plainText.length() >= GlobalConstants.TEXT_ENTRY_PASTE_THRESHOLD);
+        if (paste && !plainText.isEmpty() && DriverCompatibility.supports(driver, DriverCompatibility.Feature.JAVASCRIPT)) {
+            Object reason = ((JavascriptExecutor) driver).executeScript(PASTE_TEXT, element, plainText);
+            if (reason == null) {
+                pasted.incrementAndGet();
+                pastedCharacters.addAndGet(plainText.length());
+                if (firstKey >= 0) {
+                    element.sendKeys(text.substring(firstKey));
+                }
+                return;
+            }
+            fallbacks.incrementAndGet();
+            log.debug("|TextEntry| - |enter|: Type instead of paste, the field " + reason);
+        }
+        typed.incrementAndGet();
+        element.clear();
+        element.sendKeys(text);
+    }
+
+    /**
+     * To find the first WebDriver key in a text, e.g. {@link org.openqa.selenium.Keys#ENTER} or a chord, which must be
+     * sent as a key press instead of being pasted as a character
+     *
+     * @param text
+     * @return the index of the first key, -1 if the text has none
+     */
+    static int indexOfKey(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '\uE000' && c <= '\uF8FF') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * To get how many texts were pasted instead of typed
+     *
+     * @return a readable summary of the counters
+     */
+    public static String getStatistics() {
+        return "pasted: " + pasted.get() + " (" + pastedCharacters.get() + " characters), typed: " + typed.get()
+                + ", typed because the field needs keys: " + fallbacks.get();
+    }
+}
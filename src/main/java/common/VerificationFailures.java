@@ -3,10 +3,11 @@ package common;
 import org.testng.ITestResult;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class VerificationFailures extends HashMap<ITestResult, List<Throwable>>
+public class VerificationFailures extends ConcurrentHashMap<ITestResult, List<Throwable>>
 {
     /**
 	 * 
@@ -15,9 +16,6 @@ public class VerificationFailures extends HashMap<ITestResult, List<Throwable>>
 
 	public static VerificationFailures getFailures()
     {
-        if ( failures == null ) {
-            failures = new VerificationFailures();
-        }
         return failures;
     }
     
@@ -30,13 +28,19 @@ public class VerificationFailures extends HashMap<ITestResult, List<Throwable>>
    
     public void addFailureForTest(ITestResult result, Throwable throwable)
     {
-        List<Throwable> exceptions = getFailuresForTest(result);
+        List<Throwable> exceptions = get(result);
+        if ( exceptions == null ) {
+            List<Throwable> created = Collections.synchronizedList(new ArrayList<Throwable>());
+            exceptions = putIfAbsent(result, created);
+            if ( exceptions == null ) {
+                exceptions = created;
+            }
+        }
         exceptions.add(throwable);
-        put(result, exceptions);
     }
     
     private VerificationFailures() { super(); }
     
-    private static VerificationFailures failures;
+    private static final VerificationFailures failures = new VerificationFailures();
 }
 
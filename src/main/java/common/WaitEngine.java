@@ -0,0 +1,202 @@
+package common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shared replacement for a new WebDriverWait per call. A wait polls its condition after
+ * {@link GlobalConstants#WAIT_POLL_INITIAL_MILLIS}, then doubles the pause up to
+ * {@link GlobalConstants#WAIT_POLL_MAX_MILLIS}, so a condition that is true almost at once is seen almost at once
+ * while a slow one does not flood the driver. Every call carries its own timeout.
+ * <p>
+ * Conditions on a locator are created once and reused; like WebDriverWait, a NotFoundException or
+ * StaleElementReferenceException thrown by a condition only means "not yet". The real duration of every wait is
+ * recorded in a {@link LatencyHistogram} per wait name.
+ */
+public class WaitEngine {
+    private static final int MAX_CONDITIONS = 1024;
+    private final Log log = LogFactory.getLog(getClass());
+    private final Map<String, ExpectedCondition<?>> conditions = new LinkedHashMap<String, ExpectedCondition<?>>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ExpectedCondition<?>> eldest) {
+            return size() > MAX_CONDITIONS;
+        }
+    };
+    private final Map<String, LatencyHistogram> durations = new TreeMap<String, LatencyHistogram>();
+    private final LatencyHistogram timeouts = new LatencyHistogram();
+    private final ExpectedCondition<Alert> alertPresent = ExpectedConditions.alertIsPresent();
+
+    public static synchronized WaitEngine getEngine() {
+        if (engine == null) {
+            engine = new WaitEngine();
+        }
+        return engine;
+    }
+
+    private WaitEngine() {
+    }
+
+    /**
+     * To wait till a condition returns a value other than null or false
+     *
+     * @param driver
+     * @param name:          the name the duration is recorded under, e.g. the calling helper
+     * @param condition
+     * @param timeoutMillis: the deadline of this call
+     * @return the last value of the condition
+     * @throws TimeoutException if the condition is still not met at the deadline
+     */
+    public <T> T until(WebDriver driver, String name, ExpectedCondition<T> condition, long timeoutMillis) {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1000000L;
+        long pause = GlobalConstants.WAIT_POLL_INITIAL_MILLIS;
+        RuntimeException lastException = null;
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    record(name, start, false);
+                    return value;
+                }
+            } catch (NotFoundException e) {
+                lastException = e;
+            } catch (StaleElementReferenceException e) {
+                lastException = e;
+            }
+            long remainingMillis = (deadline - System.nanoTime()) / 1000000L;
+            if (remainingMillis <= 0) {
+                record(name, start, true);
+                throw new TimeoutException("Expected condition failed: " + condition + " (tried for " + timeoutMillis + " ms)", lastException);
+            }
+            try {
+                Thread.sleep(Math.min(pause, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for " + condition, e);
+            }
+            pause = Math.min(pause * 2, GlobalConstants.WAIT_POLL_MAX_MILLIS);
+        }
+    }
+
+    /**
+     * To get the shared condition that an element is present and visible
+     *
+     * @param by: the resolved locator of the element
+     */
+    public ExpectedCondition<WebElement> visibilityOf(By by) {
+        ExpectedCondition<WebElement> condition = getCondition("visible", by);
+        return condition != null ? condition : putCondition("visible", by, ExpectedConditions.visibilityOfElementLocated(by));
+    }
+
+    public ExpectedCondition<List<WebElement>> visibilityOfAll(By by) {
+        ExpectedCondition<List<WebElement>> condition = getCondition("allVisible", by);
+        return condition != null ? condition : putCondition("allVisible", by, ExpectedConditions.visibilityOfAllElementsLocatedBy(by));
+    }
+
+    public ExpectedCondition<WebElement> clickabilityOf(By by) {
+        ExpectedCondition<WebElement> condition = getCondition("clickable", by);
+        return condition != null ? condition : putCondition("clickable", by, ExpectedConditions.elementToBeClickable(by));
+    }
+
+    public ExpectedCondition<WebElement> presenceOf(By by) {
+        ExpectedCondition<WebElement> condition = getCondition("present", by);
+        return condition != null ? condition : putCondition("present", by, ExpectedConditions.presenceOfElementLocated(by));
+    }
+
+    public ExpectedCondition<List<WebElement>> presenceOfAll(By by) {
+        ExpectedCondition<List<WebElement>> condition = getCondition("allPresent", by);
+        return condition != null ? condition : putCondition("allPresent", by, ExpectedConditions.presenceOfAllElementsLocatedBy(by));
+    }
+
+    /**
+     * To get the shared condition that no element matching an xpath is displayed. It is answered by
+     * {@link ElementProbe}, so an absent element never waits for the implicit wait.
+     *
+     * @param xpath: the resolved xpath expression of the element
+     */
+    public ExpectedCondition<Boolean> invisibilityOf(final String xpath) {
+        ExpectedCondition<Boolean> condition = getCondition("invisible", xpath);
+        return condition != null ? condition : putCondition("invisible", xpath, new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return ElementProbe.probe(driver, xpath) != ElementProbe.State.DISPLAYED;
+            }
+
+            @Override
+            public String toString() {
+                return "element to no longer be visible: " + xpath;
+            }
+        });
+    }
+
+    public ExpectedCondition<Alert> alertPresence() {
+        return alertPresent;
+    }
+
+    /**
+     * To get the real durations of every wait by name
+     *
+     * @return a readable summary with p50, p95 and p99 per wait name
+     */
+    public synchronized String getStatistics() {
+        StringBuilder statistics = new StringBuilder("timeouts: " + timeouts.getCount());
+        for (Map.Entry<String, LatencyHistogram> entry : durations.entrySet()) {
+            statistics.append("; ").append(entry.getKey()).append(" ").append(entry.getValue());
+        }
+        return statistics.toString();
+    }
+
+    /**
+     * To record the real duration of a wait that ran outside this engine, e.g. an event-driven wait
+     *
+     * @param name:       the name the duration is recorded under
+     * @param startNanos: the start of the wait, from System.nanoTime
+     * @param timedOut:   true if the wait ended at its deadline
+     */
+    void record(String name, long startNanos, boolean timedOut) {
+        if (timedOut) {
+            timeouts.recordSince(startNanos);
+        }
+        getDurations(name).recordSince(startNanos);
+    }
+
+    private synchronized LatencyHistogram getDurations(String name) {
+        LatencyHistogram histogram = durations.get(name);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            durations.put(name, histogram);
+            log.debug("|WaitEngine| - |getDurations|: Record durations of " + name);
+        }
+        return histogram;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ExpectedCondition<T> getCondition(String kind, Object target) {
+        synchronized (conditions) {
+            return (ExpectedCondition<T>) conditions.get(kind + "|" + target);
+        }
+    }
+
+    private <T> ExpectedCondition<T> putCondition(String kind, Object target, ExpectedCondition<T> condition) {
+        synchronized (conditions) {
+            conditions.put(kind + "|" + target, condition);
+        }
+        return condition;
+    }
+
+    private static WaitEngine engine;
+}